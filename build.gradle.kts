@@ -40,6 +40,13 @@ repositories {
     }
 }
 
+// JMH benchmarks of the Dependency Analyzer in src/jmh/java, run with ./gradlew jmh [-Pjmh.include=<regexp>]
+// they share the synthetic dependency tree fixtures with tests
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.test.get().output + sourceSets.main.get().compileClasspath + sourceSets.test.get().compileClasspath
+    runtimeClasspath += output + compileClasspath + sourceSets.test.get().runtimeClasspath
+}
+
 // Dependencies are managed with Gradle version catalog - read more: https://docs.gradle.org/current/userguide/platforms.html#sub:version-catalog
 
 dependencies {
@@ -49,6 +56,9 @@ dependencies {
 // https://mvnrepository.com/artifact/org.apache.maven.shared/maven-shared-utils
     implementation("org.apache.maven.shared:maven-shared-utils:3.3.4")
 
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+
     intellijPlatform {
         intellijIdeaCommunity(properties("platformVersion"))
         bundledPlugins(properties("platformBundledPlugins").map { it.split(',').map(String::trim).filter(String::isNotEmpty) })
@@ -128,4 +138,20 @@ tasks {
     publishPlugin {
         dependsOn("patchChangelog")
     }
+
+    register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs the Dependency Analyzer JMH benchmarks."
+        dependsOn(jmh.classesTaskName, prepareTestSandbox)
+        classpath = jmh.runtimeClasspath
+        mainClass = "org.openjdk.jmh.Main"
+        // benchmarks start a headless IDE application, configured the same way as for tests; forks inherit the JVM arguments
+        jvmArgumentProviders.addAll(test.get().jvmArgumentProviders)
+        systemProperties(test.get().systemProperties)
+        args(
+            providers.gradleProperty("jmh.include").getOrElse("krasa\\.mavenhelper\\..*Benchmark"),
+            "-rf", "json",
+            "-rff", layout.buildDirectory.file("jmh-results.json").get().asFile.path,
+        )
+    }
 }
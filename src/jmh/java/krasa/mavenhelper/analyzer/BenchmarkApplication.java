@@ -0,0 +1,15 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.testFramework.TestApplicationManager;
+
+/**
+ * Headless IDE application for benchmarks of code that uses services, progress or {@link com.intellij.concurrency.JobLauncher}.
+ */
+final class BenchmarkApplication {
+	private BenchmarkApplication() {
+	}
+
+	static void ensureStarted() {
+		TestApplicationManager.getInstance();
+	}
+}
@@ -0,0 +1,60 @@
+package krasa.mavenhelper.analyzer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and sorting of typical versions, packed ones and those that need the full item parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComparableVersionBenchmark {
+	private static final String[] SAMPLES = {"1.0", "2.17.2", "5.3.31", "3.0.0-M5", "1.2.3-SNAPSHOT", "32.1.3-jre",
+		"2.0.0-rc1", "1.0.0.Final", "4.13.2", "9.4.53.v20231009", "1.7.36", "6.0.0-beta"};
+
+	@Param({"1000", "100000"})
+	public int versionCount;
+
+	private String[] versions;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		versions = new String[versionCount];
+		for (int i = 0; i < versionCount; i++) {
+			versions[i] = SAMPLES[random.nextInt(SAMPLES.length)];
+		}
+	}
+
+	@Benchmark
+	public ComparableVersion[] parse() {
+		ComparableVersion[] parsed = new ComparableVersion[versions.length];
+		for (int i = 0; i < versions.length; i++) {
+			parsed[i] = new ComparableVersion(versions[i]);
+		}
+		return parsed;
+	}
+
+	@Benchmark
+	public ComparableVersion[] parseCached() {
+		ComparableVersion[] parsed = new ComparableVersion[versions.length];
+		for (int i = 0; i < versions.length; i++) {
+			parsed[i] = ComparableVersion.parse(versions[i]);
+		}
+		return parsed;
+	}
+
+	@Benchmark
+	public ComparableVersion[] sort() {
+		ComparableVersion[] parsed = parseCached();
+		Arrays.sort(parsed);
+		return parsed;
+	}
+}
@@ -0,0 +1,53 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.testFramework.LightVirtualFile;
+import krasa.mavenhelper.fixture.DependencyTreeFixture;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Building the graph and the list nodes of a freshly resolved module, and the diff based update after a re-resolve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DependencyModelBenchmark {
+	@Param({"100", "1000", "10000", "100000"})
+	public int nodeCount;
+
+	private final LightVirtualFile pom = new LightVirtualFile("pom.xml");
+	private List<MavenArtifactNode> tree;
+	private List<MavenArtifactNode> reResolvedTree;
+	private DependencyModel model;
+
+	@Setup
+	public void setUp() {
+		BenchmarkApplication.ensureStarted();
+		tree = DependencyTreeFixture.builder().nodeCount(nodeCount).build().getRoots();
+		// same shape, new node instances - like a re-resolve without dependency changes
+		reResolvedTree = DependencyTreeFixture.builder().nodeCount(nodeCount).build().getRoots();
+		model = DependencyModel.build(pom, tree, UnaryOperator.identity());
+	}
+
+	@Benchmark
+	public DependencyGraph buildGraph() {
+		return DependencyGraph.build(tree);
+	}
+
+	@Benchmark
+	public DependencyModel buildModel() {
+		return DependencyModel.build(pom, tree, UnaryOperator.identity());
+	}
+
+	@Benchmark
+	public DependencyModel updateModel() {
+		return DependencyModel.update(model, reResolvedTree, UnaryOperator.identity());
+	}
+}
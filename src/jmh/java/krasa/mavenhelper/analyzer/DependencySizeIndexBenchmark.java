@@ -0,0 +1,57 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.openapi.util.io.NioFiles;
+import krasa.mavenhelper.fixture.DependencyTreeFixture;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shallow and deep sizes of every node, over jars in a generated local repository. The artifact size cache is warmed up
+ * by the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DependencySizeIndexBenchmark {
+	@Param({"100", "1000", "10000", "100000"})
+	public int nodeCount;
+
+	private Path localRepository;
+	private DependencyGraph graph;
+	private DependencySizeIndex previous;
+
+	@Setup
+	public void setUp() throws IOException {
+		BenchmarkApplication.ensureStarted();
+		localRepository = Files.createTempDirectory("maven-helper-jmh");
+		graph = DependencyGraph.build(DependencyTreeFixture.builder()
+			.nodeCount(nodeCount)
+			.jarSizeKb(1, 16)
+			.localRepository(localRepository)
+			.build()
+			.getRoots());
+		previous = DependencySizeIndex.compute(graph, null, () -> false);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		NioFiles.deleteRecursively(localRepository);
+	}
+
+	@Benchmark
+	public DependencySizeIndex compute() {
+		return DependencySizeIndex.compute(graph, null, () -> false);
+	}
+
+	@Benchmark
+	public DependencySizeIndex computeFromPrevious() {
+		return DependencySizeIndex.compute(graph, previous, () -> false);
+	}
+}
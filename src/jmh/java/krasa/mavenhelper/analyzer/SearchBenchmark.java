@@ -0,0 +1,54 @@
+package krasa.mavenhelper.analyzer;
+
+import krasa.mavenhelper.fixture.DependencyTreeFixture;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search of the left panel: index lookups and the filtered tree view built from the hits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+	@Param({"100", "1000", "10000", "100000"})
+	public int nodeCount;
+
+	@Param({"artifact-1", "group3 -artifact-2", "scope:test artifact"})
+	public String searchText;
+
+	private DependencyGraph graph;
+	private CoordinateSearchIndex index;
+	private SearchQuery query;
+	private BitSet matchingCoordinates;
+
+	@Setup
+	public void setUp() {
+		BenchmarkApplication.ensureStarted();
+		graph = DependencyGraph.build(DependencyTreeFixture.builder().nodeCount(nodeCount).build().getRoots());
+		index = CoordinateSearchIndex.build(graph);
+		query = SearchQuery.parse(searchText);
+		matchingCoordinates = index.findCoordinates(query, null);
+	}
+
+	@Benchmark
+	public CoordinateSearchIndex buildIndex() {
+		return CoordinateSearchIndex.build(graph);
+	}
+
+	@Benchmark
+	public BitSet findCoordinates() {
+		return index.findCoordinates(SearchQuery.parse(searchText), null);
+	}
+
+	@Benchmark
+	public LazyGraphTreeNode.View filterTree() {
+		return LazyGraphTreeNode.View.compute(graph, query, matchingCoordinates, false, true, null, null,
+			MyDefaultMutableTreeNode.ARTIFACT_ID, () -> false);
+	}
+}
@@ -0,0 +1,49 @@
+package krasa.mavenhelper.analyzer;
+
+import krasa.mavenhelper.fixture.DependencyTreeFixture;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text work done for tree rows: the one time descriptor of a row and the size formatting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeRenderingBenchmark {
+	@Param({"5000"})
+	public int nodeCount;
+
+	private final List<MavenArtifactNode> nodes = new ArrayList<>();
+
+	@Setup
+	public void setUp() {
+		BenchmarkApplication.ensureStarted();
+		DependencyGraph graph = DependencyGraph.build(DependencyTreeFixture.builder().nodeCount(nodeCount).build().getRoots());
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			nodes.add(graph.getNode(i));
+		}
+	}
+
+	@Benchmark
+	public void createDescriptors(Blackhole blackhole) {
+		for (MavenArtifactNode node : nodes) {
+			blackhole.consume(TreeNodeDescriptor.create(node));
+		}
+	}
+
+	@Benchmark
+	public void formatSizes(Blackhole blackhole) {
+		for (int i = 0; i < nodeCount; i++) {
+			blackhole.consume(Utils.formatSize(i * 37L, i * 1_234L));
+		}
+	}
+}
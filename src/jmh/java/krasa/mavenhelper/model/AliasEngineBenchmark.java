@@ -0,0 +1,85 @@
+package krasa.mavenhelper.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Expansion of goal command lines by {@link AliasEngine} against the replace-per-alias loop it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AliasEngineBenchmark {
+	private static final Function<String, String> RESOLVER = macro -> "resolved";
+
+	@Param({"3", "10", "50"})
+	public int aliasCount;
+
+	/**
+	 * command lines without aliases, with a few of them and with a macro
+	 */
+	@Param({"plain", "aliases", "macro"})
+	public String commandLines;
+
+	private List<Alias> aliases;
+	private AliasEngine engine;
+	private String[] lines;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(25);
+		aliases = new ArrayList<>();
+		for (int i = 0; i < aliasCount; i++) {
+			// some aliases use a later one, like $install$ using $skipTests$
+			String value = i + 1 < aliasCount && random.nextInt(4) == 0 ? "clean $alias" + (i + 1) + "$ install" : "-Dproperty" + i + "=true";
+			aliases.add(Alias.of("$alias" + i + "$", value));
+		}
+		engine = AliasEngine.compile(aliases, ApplicationSettings.RESOLVED_MACROS);
+		if (!engine.isSinglePass()) {
+			throw new IllegalStateException("aliases have warnings");
+		}
+		lines = new String[64];
+		for (int i = 0; i < lines.length; i++) {
+			StringBuilder sb = new StringBuilder("clean install -DskipTests -pl module-" + i + " -am");
+			if (!commandLines.equals("plain")) {
+				sb.append(" $alias").append(random.nextInt(aliasCount)).append("$ -T 4 $alias").append(random.nextInt(aliasCount)).append('$');
+			}
+			if (commandLines.equals("macro")) {
+				sb.append(" -Dtest=").append(ApplicationSettings.CURRENT_CLASS_MACRO);
+			}
+			lines[i] = sb.toString();
+		}
+	}
+
+	@Benchmark
+	public String expand() {
+		return engine.expand(nextLine(), RESOLVER);
+	}
+
+	@Benchmark
+	public String sequentialReplace() {
+		String s = nextLine();
+		for (Alias alias : aliases) {
+			s = alias.applyTo(s);
+		}
+		for (String macro : ApplicationSettings.RESOLVED_MACROS) {
+			if (s.contains(macro)) {
+				s = s.replace(macro, RESOLVER.apply(macro));
+			}
+		}
+		return s;
+	}
+
+	private String nextLine() {
+		return lines[next++ & (lines.length - 1)];
+	}
+}
@@ -0,0 +1,270 @@
+package krasa.mavenhelper;
+
+import com.intellij.openapi.application.ApplicationInfo;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, size, allocation and cancellation statistics of Dependency Analyzer operations since IDE start, shown in the
+ * hidden "Analyzer diagnostics" tab.
+ * <p>
+ * Recording is a few counter increments per operation, so it is always on. Allocations are those of the thread that
+ * ran the operation, work it handed over to other threads is not included.
+ */
+@Service(Service.Level.APP)
+public final class AnalyzerTelemetryService {
+	/**
+	 * power of two buckets, the last one is open ended
+	 */
+	private static final int BUCKET_COUNT = 24;
+	private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+	public enum Operation {
+		MODEL_BUILD("Model build"),
+		LEFT_PANEL_UPDATE("Left panel update"),
+		RIGHT_TREE_UPDATE("Right tree update"),
+		SIZE_INDEX("Size index");
+
+		private final String displayName;
+
+		Operation(String displayName) {
+			this.displayName = displayName;
+		}
+
+		@Override
+		public String toString() {
+			return displayName;
+		}
+	}
+
+	private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+	private final long startedAt = System.currentTimeMillis();
+
+	public AnalyzerTelemetryService() {
+		for (Operation operation : Operation.values()) {
+			stats.put(operation, new Stats());
+		}
+	}
+
+	public static @NotNull AnalyzerTelemetryService getInstance() {
+		return ApplicationManager.getApplication().getService(AnalyzerTelemetryService.class);
+	}
+
+	/**
+	 * Starts measuring, the returned sample must be finished or cancelled by the same thread.
+	 */
+	@NotNull
+	public Sample start(@NotNull Operation operation) {
+		return new Sample(stats.get(operation), System.nanoTime(), getAllocatedBytes());
+	}
+
+	public void reset() {
+		for (Stats s : stats.values()) {
+			s.reset();
+		}
+	}
+
+	@NotNull
+	public String toText() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+			Stats s = entry.getValue();
+			long completed = s.completed.sum();
+			long cancelled = s.cancelled.sum();
+			sb.append(entry.getKey()).append('\n');
+			sb.append("  completed: ").append(completed).append(", cancelled: ").append(cancelled);
+			if (completed + cancelled > 0) {
+				sb.append(" (").append(cancelled * 100 / (completed + cancelled)).append("%)");
+			}
+			sb.append('\n');
+			if (completed > 0) {
+				sb.append("  latency: avg ").append(s.totalNanos.sum() / completed / 1_000_000).append(" ms, max ")
+					.append(s.maxNanos.get() / 1_000_000).append(" ms, p50 <= ").append(s.latencyMicros.percentile(0.5) / 1000)
+					.append(" ms, p95 <= ").append(s.latencyMicros.percentile(0.95) / 1000).append(" ms\n");
+				sb.append("  nodes: avg ").append(s.totalNodes.sum() / completed).append(", p95 <= ").append(s.nodes.percentile(0.95)).append('\n');
+				if (THREAD_MX_BEAN != null) {
+					sb.append("  allocated: avg ").append(s.totalAllocatedBytes.sum() / completed / 1024).append(" KB, p95 <= ")
+						.append(s.allocatedKb.percentile(0.95)).append(" KB\n");
+				}
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	@NotNull
+	public String toJson() {
+		StringBuilder sb = new StringBuilder("{\n");
+		sb.append("  \"ide\": \"").append(ApplicationInfo.getInstance().getFullApplicationName()).append("\",\n");
+		sb.append("  \"since\": \"").append(Instant.ofEpochMilli(startedAt)).append("\",\n");
+		sb.append("  \"exportedAt\": \"").append(Instant.now()).append("\",\n");
+		sb.append("  \"availableProcessors\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n");
+		sb.append("  \"maxMemoryMb\": ").append(Runtime.getRuntime().maxMemory() / 1024 / 1024).append(",\n");
+		sb.append("  \"operations\": {");
+		boolean first = true;
+		for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+			Stats s = entry.getValue();
+			sb.append(first ? "\n" : ",\n");
+			first = false;
+			sb.append("    \"").append(entry.getKey().name()).append("\": {\n");
+			sb.append("      \"completed\": ").append(s.completed.sum()).append(",\n");
+			sb.append("      \"cancelled\": ").append(s.cancelled.sum()).append(",\n");
+			sb.append("      \"totalNanos\": ").append(s.totalNanos.sum()).append(",\n");
+			sb.append("      \"maxNanos\": ").append(s.maxNanos.get()).append(",\n");
+			sb.append("      \"totalNodes\": ").append(s.totalNodes.sum()).append(",\n");
+			sb.append("      \"totalAllocatedBytes\": ").append(THREAD_MX_BEAN != null ? s.totalAllocatedBytes.sum() : -1).append(",\n");
+			sb.append("      \"latencyMicrosHistogram\": ");
+			s.latencyMicros.appendJson(sb);
+			sb.append(",\n      \"nodesHistogram\": ");
+			s.nodes.appendJson(sb);
+			sb.append(",\n      \"allocatedKbHistogram\": ");
+			s.allocatedKb.appendJson(sb);
+			sb.append("\n    }");
+		}
+		sb.append("\n  }\n}\n");
+		return sb.toString();
+	}
+
+	private static long getAllocatedBytes() {
+		return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : 0;
+	}
+
+	private static com.sun.management.ThreadMXBean getThreadMXBean() {
+		try {
+			if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+				&& bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+				return bean;
+			}
+		} catch (UnsupportedOperationException ignored) {
+		}
+		return null;
+	}
+
+	public static final class Sample {
+		private final Stats stats;
+		private final long startNanos;
+		private final long startAllocatedBytes;
+
+		private Sample(Stats stats, long startNanos, long startAllocatedBytes) {
+			this.stats = stats;
+			this.startNanos = startNanos;
+			this.startAllocatedBytes = startAllocatedBytes;
+		}
+
+		/**
+		 * @param nodeCount size of the result, e.g. graph nodes or shown rows
+		 */
+		public void finish(long nodeCount) {
+			long nanos = System.nanoTime() - startNanos;
+			long allocatedBytes = Math.max(0, getAllocatedBytes() - startAllocatedBytes);
+			stats.completed.increment();
+			stats.totalNanos.add(nanos);
+			stats.maxNanos.accumulateAndGet(nanos, Math::max);
+			stats.totalNodes.add(nodeCount);
+			stats.totalAllocatedBytes.add(allocatedBytes);
+			stats.latencyMicros.record(nanos / 1000);
+			stats.nodes.record(nodeCount);
+			stats.allocatedKb.record(allocatedBytes / 1024);
+		}
+
+		public void cancel() {
+			stats.cancelled.increment();
+		}
+	}
+
+	private static final class Stats {
+		private final LongAdder completed = new LongAdder();
+		private final LongAdder cancelled = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final LongAdder totalNodes = new LongAdder();
+		private final LongAdder totalAllocatedBytes = new LongAdder();
+		private final Histogram latencyMicros = new Histogram();
+		private final Histogram nodes = new Histogram();
+		private final Histogram allocatedKb = new Histogram();
+
+		private void reset() {
+			completed.reset();
+			cancelled.reset();
+			totalNanos.reset();
+			maxNanos.set(0);
+			totalNodes.reset();
+			totalAllocatedBytes.reset();
+			latencyMicros.reset();
+			nodes.reset();
+			allocatedKb.reset();
+		}
+	}
+
+	/**
+	 * Counts of values in buckets [0, 1], (1, 2], (2, 4], (4, 8]...
+	 */
+	private static final class Histogram {
+		private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+		private Histogram() {
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+
+		private void record(long value) {
+			int bucket = value <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(value - 1);
+			buckets[Math.min(bucket, BUCKET_COUNT - 1)].increment();
+		}
+
+		/**
+		 * @return upper bound of the bucket containing the percentile
+		 */
+		private long percentile(double percentile) {
+			long total = 0;
+			for (LongAdder bucket : buckets) {
+				total += bucket.sum();
+			}
+			long threshold = (long) Math.ceil(total * percentile);
+			long seen = 0;
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				seen += buckets[i].sum();
+				if (seen >= threshold && seen > 0) {
+					return upperBound(i);
+				}
+			}
+			return 0;
+		}
+
+		private static long upperBound(int bucket) {
+			return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+		}
+
+		private void appendJson(StringBuilder sb) {
+			sb.append('{');
+			boolean first = true;
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				long count = buckets[i].sum();
+				if (count == 0) {
+					continue;
+				}
+				if (!first) {
+					sb.append(", ");
+				}
+				first = false;
+				sb.append('"').append(i == BUCKET_COUNT - 1 ? "inf" : String.valueOf(upperBound(i))).append("\": ").append(count);
+			}
+			sb.append('}');
+		}
+
+		private void reset() {
+			for (LongAdder bucket : buckets) {
+				bucket.reset();
+			}
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package krasa.mavenhelper;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers artifact file lengths across projects and IDE restarts, so that sizes in the Dependency Analyzer do not
+ * need a file system call per jar on every resolve.
+ * <p>
+ * Entries are keyed by path and validated by modification time and length. Released artifacts in a Maven repository
+ * never change, so their entries are trusted without touching the disk; SNAPSHOT artifacts are always validated.
+ * <p>
+ * Changes are saved in background once no entry changed for a while. When full, the least recently used entries are
+ * evicted, entries not used since loading first.
+ */
+@Service(Service.Level.APP)
+public final class ArtifactSizeCacheService implements Disposable {
+	private static final Logger LOG = Logger.getInstance(ArtifactSizeCacheService.class);
+	private static final int FORMAT_VERSION = 1;
+	private static final int MAX_ENTRIES = 200_000;
+	private static final int EVICTED_ENTRIES = MAX_ENTRIES / 10;
+	private static final long SAVE_DELAY_MS = 30_000;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong useClock = new AtomicLong();
+	private final Object evictionLock = new Object();
+	private final Object saveLock = new Object();
+	private final Alarm saveAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+	private final AtomicBoolean saveScheduled = new AtomicBoolean();
+	private volatile long lastChangeNanos;
+	private volatile boolean loaded;
+	private volatile boolean dirty;
+
+	public static @NotNull ArtifactSizeCacheService getInstance() {
+		return ApplicationManager.getApplication().getService(ArtifactSizeCacheService.class);
+	}
+
+	/**
+	 * @return size of the artifact file in KB, 0 if it is not resolved
+	 */
+	public long getSizeKb(@NotNull MavenArtifact artifact) {
+		File file = artifact.getFile();
+		if (file == null) {
+			return 0;
+		}
+		return getLength(file.toPath(), artifact.getVersion() == null || artifact.getVersion().endsWith("SNAPSHOT")) / 1024;
+	}
+
+	private long getLength(@NotNull Path path, boolean validate) {
+		ensureLoaded();
+		String key = path.toString();
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			entry.lastUsed = useClock.incrementAndGet();
+			if (!validate) {
+				return entry.length;
+			}
+		}
+
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			entries.remove(key);
+			return 0;
+		} catch (IOException e) {
+			LOG.debug(e);
+			return 0;
+		}
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		long length = attributes.size();
+		if (entry == null || entry.lastModified != lastModified || entry.length != length) {
+			if (entries.size() >= MAX_ENTRIES) {
+				evictLeastRecentlyUsed();
+			}
+			Entry changed = new Entry(lastModified, length);
+			changed.lastUsed = useClock.incrementAndGet();
+			entries.put(key, changed);
+			changed();
+		}
+		return length;
+	}
+
+	private void evictLeastRecentlyUsed() {
+		synchronized (evictionLock) {
+			if (entries.size() < MAX_ENTRIES) {
+				return;
+			}
+			// lookups running meanwhile may keep a few entries that would have been evicted, which does not matter
+			long[] lastUsed = entries.values().stream().mapToLong(entry -> entry.lastUsed).toArray();
+			Arrays.sort(lastUsed);
+			int evicted = Math.min(EVICTED_ENTRIES, lastUsed.length);
+			long threshold = lastUsed[evicted - 1];
+			int size = entries.size();
+			entries.values().removeIf(entry -> entry.lastUsed < threshold);
+			// entries used at the same tick, e.g. all not used since loading
+			int[] remaining = {evicted - (size - entries.size())};
+			entries.values().removeIf(entry -> entry.lastUsed == threshold && remaining[0]-- > 0);
+		}
+	}
+
+	private void changed() {
+		dirty = true;
+		lastChangeNanos = System.nanoTime();
+		if (saveScheduled.compareAndSet(false, true)) {
+			scheduleSave(SAVE_DELAY_MS);
+		}
+	}
+
+	private void scheduleSave(long delayMs) {
+		if (!saveAlarm.isDisposed()) {
+			saveAlarm.addRequest(this::saveWhenIdle, delayMs);
+		}
+	}
+
+	/**
+	 * debounced, a large resolve changes many entries in a row
+	 */
+	private void saveWhenIdle() {
+		long idleMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastChangeNanos);
+		if (idleMs < SAVE_DELAY_MS) {
+			scheduleSave(SAVE_DELAY_MS - idleMs);
+			return;
+		}
+		saveScheduled.set(false);
+		if (dirty) {
+			save();
+		}
+	}
+
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+		synchronized (this) {
+			if (loaded) {
+				return;
+			}
+			load();
+			loaded = true;
+		}
+	}
+
+	private void load() {
+		Path file = getCacheFile();
+		if (!Files.isRegularFile(file)) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != FORMAT_VERSION) {
+				return;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String path = in.readUTF();
+				long lastModified = in.readLong();
+				long length = in.readLong();
+				// lastUsed stays 0, older than anything used since
+				entries.put(path, new Entry(lastModified, length));
+			}
+		} catch (IOException e) {
+			LOG.warn("Failed to load " + file, e);
+			entries.clear();
+		}
+	}
+
+	private void save() {
+		Path file = getCacheFile();
+		synchronized (saveLock) {
+			// cleared before the snapshot, so that changes made while writing are saved next time
+			dirty = false;
+			try {
+				Files.createDirectories(file.getParent());
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+					Map<String, Entry> snapshot = Map.copyOf(entries);
+					out.writeInt(FORMAT_VERSION);
+					out.writeInt(snapshot.size());
+					for (Map.Entry<String, Entry> e : snapshot.entrySet()) {
+						out.writeUTF(e.getKey());
+						out.writeLong(e.getValue().lastModified);
+						out.writeLong(e.getValue().length);
+					}
+				}
+			} catch (IOException e) {
+				dirty = true;
+				LOG.warn("Failed to save " + file, e);
+			}
+		}
+	}
+
+	private static @NotNull Path getCacheFile() {
+		return PathManager.getSystemDir().resolve("maven-helper-pro").resolve("artifact-sizes.bin");
+	}
+
+	@Override
+	public void dispose() {
+		// the alarm is already disposed as a child of this service
+		if (loaded && dirty) {
+			save();
+		}
+	}
+
+	private static final class Entry {
+		private final long lastModified;
+		private final long length;
+		/**
+		 * {@link #useClock} tick of the last lookup, written without synchronization
+		 */
+		private long lastUsed;
+
+		private Entry(long lastModified, long length) {
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package krasa.mavenhelper;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.containers.Interner;
+import krasa.mavenhelper.analyzer.DependencyModel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jetbrains.idea.maven.project.MavenProject;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Owns the Dependency Analyzer models of all modules of the project.
+ * <p>
+ * Every open Dependency Analyzer acquires a read-only {@link DependencyModel} of its module and releases it when
+ * closed. A model is rebuilt only when its module was resolved again, all editors of the same module share one
+ * instance and coordinate key strings are interned project-wide, so modules of a reactor share them while any of
+ * their models is alive. Models are dropped when their last editor is closed.
+ * <p>
+ * Builds are parallel internally, so only a few of them run at once across all projects, the rest wait in their
+ * cancellable background tasks.
+ */
+@Service(Service.Level.PROJECT)
+public final class DependencyModelService implements Disposable {
+	private static final Semaphore BUILD_PERMITS = new Semaphore(Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+
+	private final Map<VirtualFile, ModelEntry> entries = new HashMap<>();
+	// weak, so keys go away with the last model using them instead of when the last editor of the project closes
+	private final Interner<String> coordinateKeys = Interner.createWeakInterner();
+
+	public static @NotNull DependencyModelService getInstance(@NotNull Project project) {
+		return project.getService(DependencyModelService.class);
+	}
+
+	public DependencyModelService(@NotNull Project project) {
+	}
+
+	/**
+	 * Returns the model for the current dependency tree of the module, building it if needed. Call from a background
+	 * thread, every successful call must be paired with {@link #release(DependencyModel)}.
+	 */
+	public @NotNull DependencyModel acquire(@NotNull MavenProject mavenProject) {
+		VirtualFile file = mavenProject.getFile();
+		ModelEntry entry;
+		synchronized (entries) {
+			entry = entries.computeIfAbsent(file, k -> new ModelEntry());
+			entry.refCount++;
+		}
+
+		boolean acquired = false;
+		try {
+			DependencyModel model = entry.getOrBuild(file, mavenProject.getDependencyTree(), this::intern);
+			acquired = true;
+			return model;
+		} finally {
+			if (!acquired) {
+				release(file);
+			}
+		}
+	}
+
+	public void release(@NotNull DependencyModel model) {
+		release(model.getFile());
+	}
+
+	private void release(@NotNull VirtualFile file) {
+		synchronized (entries) {
+			ModelEntry entry = entries.get(file);
+			if (entry == null) {
+				return;
+			}
+			if (--entry.refCount <= 0) {
+				entries.remove(file);
+			}
+		}
+	}
+
+	private @NotNull String intern(@NotNull String key) {
+		return coordinateKeys.intern(key);
+	}
+
+	@Override
+	public void dispose() {
+		synchronized (entries) {
+			entries.clear();
+		}
+		coordinateKeys.clear();
+	}
+
+	private static final class ModelEntry {
+		private int refCount;
+		private DependencyModel model;
+
+		synchronized @NotNull DependencyModel getOrBuild(@NotNull VirtualFile file,
+														 @NotNull List<MavenArtifactNode> dependencyTree,
+														 @NotNull UnaryOperator<String> interner) {
+			DependencyModel current = model;
+			// MavenProject keeps the resolved tree until the next resolve, identity is enough to detect changes
+			if (current != null && current.getDependencyTree() == dependencyTree) {
+				return current;
+			}
+			acquireBuildPermit();
+			// measured after the permit, cache hits and waiting for other builds are not model builds
+			AnalyzerTelemetryService.Sample sample = AnalyzerTelemetryService.getInstance().start(AnalyzerTelemetryService.Operation.MODEL_BUILD);
+			try {
+				current = current == null
+					? DependencyModel.build(file, dependencyTree, interner)
+					: DependencyModel.update(current, dependencyTree, interner);
+				sample.finish(current.getGraph().getNodeCount());
+			} catch (ProcessCanceledException e) {
+				sample.cancel();
+				throw e;
+			} finally {
+				BUILD_PERMITS.release();
+			}
+			model = current;
+			return current;
+		}
+
+		private static void acquireBuildPermit() {
+			try {
+				while (!BUILD_PERMITS.tryAcquire(50, TimeUnit.MILLISECONDS)) {
+					ProgressManager.checkCanceled();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ProcessCanceledException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package krasa.mavenhelper;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import krasa.mavenhelper.analyzer.JarMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches {@link JarMetrics} of artifact jars for all projects.
+ * <p>
+ * Like {@link ArtifactSizeCacheService}, released artifacts are trusted by path and SNAPSHOT artifacts are validated
+ * by modification time and length before a cached result is used.
+ */
+@Service(Service.Level.APP)
+public final class JarMetricsService {
+	private static final Logger LOG = Logger.getInstance(JarMetricsService.class);
+	private static final int MAX_ENTRIES = 20_000;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	public static @NotNull JarMetricsService getInstance() {
+		return ApplicationManager.getApplication().getService(JarMetricsService.class);
+	}
+
+	/**
+	 * Scans the jar on first use, call from a background thread.
+	 */
+	public @NotNull JarMetrics getMetrics(@NotNull MavenArtifact artifact) {
+		File file = artifact.getFile();
+		if (file == null) {
+			return JarMetrics.EMPTY;
+		}
+		Path path = file.toPath();
+		String key = path.toString();
+		Entry entry = entries.get(key);
+		boolean validate = artifact.getVersion() == null || artifact.getVersion().endsWith("SNAPSHOT");
+		if (entry != null && !validate) {
+			return entry.metrics;
+		}
+
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			entries.remove(key);
+			return JarMetrics.EMPTY;
+		} catch (IOException e) {
+			LOG.debug(e);
+			return JarMetrics.EMPTY;
+		}
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		long length = attributes.size();
+		if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+			return entry.metrics;
+		}
+
+		JarMetrics metrics;
+		try {
+			metrics = JarMetrics.scan(path);
+		} catch (IOException e) {
+			LOG.debug("Failed to read " + path, e);
+			metrics = JarMetrics.EMPTY;
+		}
+		if (entries.size() >= MAX_ENTRIES) {
+			entries.clear();
+		}
+		entries.put(key, new Entry(lastModified, length, metrics));
+		return metrics;
+	}
+
+	private record Entry(long lastModified, long length, @NotNull JarMetrics metrics) {
+	}
+}
@@ -0,0 +1,140 @@
+package krasa.mavenhelper;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunManagerListener;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import krasa.mavenhelper.model.ApplicationSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectChanges;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+import org.jetbrains.idea.maven.project.MavenProjectsTree;
+import org.jetbrains.idea.maven.server.NativeMavenProjectHolder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the generated children of the Run/Debug Maven popup groups per Maven project.
+ * <p>
+ * The actions depend only on the settings, the resolved project with its plugins and the saved run configurations, so
+ * they are rebuilt only after one of those changed, not on every opening of a context menu.
+ * <p>
+ * Plugin goals are prefetched after every resolve, so that the menus do not read plugin jars.
+ */
+@Service(Service.Level.PROJECT)
+public final class MavenActionCacheService implements Disposable {
+	private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+	private final AtomicLong modificationCount = new AtomicLong();
+	private volatile long settingsStamp = -1;
+
+	public static @NotNull MavenActionCacheService getInstance(@NotNull Project project) {
+		return project.getService(MavenActionCacheService.class);
+	}
+
+	public MavenActionCacheService(@NotNull Project project) {
+		MavenProjectsManager.getInstance(project).addProjectsTreeListener(new MavenProjectsTree.Listener() {
+			@Override
+			public void projectsUpdated(@NotNull List<? extends Pair<MavenProject, MavenProjectChanges>> updated, @NotNull List<MavenProject> deleted) {
+				invalidate();
+			}
+
+			@Override
+			public void projectResolved(@NotNull Pair<MavenProject, MavenProjectChanges> projectWithChanges, @Nullable NativeMavenProjectHolder nativeMavenProject) {
+				invalidate();
+				prefetchPluginGoals(List.of(projectWithChanges.getFirst()));
+			}
+
+			@Override
+			public void pluginsResolved(@NotNull MavenProject project) {
+				MavenPluginMojoCacheService.getInstance().pluginsResolved(project);
+				invalidate();
+				prefetchPluginGoals(List.of(project));
+			}
+		}, this);
+		project.getMessageBus().connect(this).subscribe(RunManagerListener.TOPIC, new RunManagerListener() {
+			@Override
+			public void runConfigurationAdded(@NotNull RunnerAndConfigurationSettings settings) {
+				invalidate();
+			}
+
+			@Override
+			public void runConfigurationRemoved(@NotNull RunnerAndConfigurationSettings settings) {
+				invalidate();
+			}
+
+			@Override
+			public void runConfigurationChanged(@NotNull RunnerAndConfigurationSettings settings) {
+				invalidate();
+			}
+
+			@Override
+			public void stateLoaded(@NotNull RunManager runManager, boolean isFirstLoadState) {
+				invalidate();
+			}
+		});
+	}
+
+	/**
+	 * @param group        the action group instance generating the actions
+	 * @param childProject the module the root group was invoked on, null for non-root groups
+	 * @param builder      creates the actions when they are missing or outdated
+	 */
+	public @NotNull AnAction[] getActions(@NotNull Object group,
+										  @NotNull MavenProject mavenProject,
+										  @Nullable MavenProject childProject,
+										  @NotNull Supplier<AnAction[]> builder) {
+		long settingsStamp = MavenHelperApplicationService.getInstance().getModificationCount();
+		if (settingsStamp != this.settingsStamp) {
+			// action groups are recreated when settings are applied, drop also the entries of the old ones
+			this.settingsStamp = settingsStamp;
+			invalidate();
+		}
+		long stamp = modificationCount.get();
+		Key key = new Key(group, mavenProject, childProject);
+		Entry entry = cache.get(key);
+		if (entry != null && entry.stamp == stamp) {
+			return entry.actions;
+		}
+		AnAction[] actions = builder.get();
+		// an invalidation while building makes the entry outdated right away
+		cache.put(key, new Entry(stamp, actions));
+		return actions;
+	}
+
+	/**
+	 * Loads plugin goals in background when plugin goal discovery is enabled, menus created meanwhile show them as
+	 * loading and are rebuilt once they are ready.
+	 */
+	public void prefetchPluginGoals(@NotNull Collection<MavenProject> mavenProjects) {
+		if (ApplicationSettings.get().isEnableMavenPluginGoalDiscovery()) {
+			MavenPluginMojoCacheService.getInstance().prefetch(mavenProjects, this::invalidate);
+		}
+	}
+
+	public void invalidate() {
+		modificationCount.incrementAndGet();
+		cache.clear();
+	}
+
+	@Override
+	public void dispose() {
+		cache.clear();
+	}
+
+	private record Key(@NotNull Object group, @NotNull MavenProject mavenProject, @Nullable MavenProject childProject) {
+	}
+
+	private record Entry(long stamp, @NotNull AnAction[] actions) {
+	}
+}
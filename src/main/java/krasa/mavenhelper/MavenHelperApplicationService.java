@@ -18,6 +18,8 @@ import krasa.mavenhelper.model.ApplicationSettings;
 import krasa.mavenhelper.model.Goal;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 @State(name = "MavenRunHelperPro", storages = {@Storage("mavenRunHelperPro.xml")})
 public class MavenHelperApplicationService implements PersistentStateComponent<ApplicationSettings> {
 	static final Logger LOG = Logger.getInstance(MavenHelperApplicationService.class);
@@ -25,6 +27,7 @@ public class MavenHelperApplicationService implements PersistentStateComponent<A
 	public static final String RUN_MAVEN = "Run Maven";
 	public static final String DEBUG_MAVEN = "Debug Maven";
 	private ApplicationSettings settings = new ApplicationSettings();
+	private final AtomicLong modificationCount = new AtomicLong();
 
 	public void initShortcuts() {
 		addActionGroup(new MainMavenDebugActionGroup(DEBUG_MAVEN, MyIcons.ICON), DEBUG_MAVEN);
@@ -153,6 +156,21 @@ public class MavenHelperApplicationService implements PersistentStateComponent<A
 	public void loadState(ApplicationSettings state) {
 		settings = state;
 		ApplicationSettings.addDefaultAliases(settings.getAliases());
+		settingsChanged();
+	}
+
+	/**
+	 * Call after modifying the settings in place, e.g. adding or removing a goal.
+	 */
+	public void settingsChanged() {
+		modificationCount.incrementAndGet();
+	}
+
+	/**
+	 * Incremented on every settings change, used to invalidate data derived from the settings.
+	 */
+	public long getModificationCount() {
+		return modificationCount.get();
 	}
 
 
@@ -1,31 +1,72 @@
 package krasa.mavenhelper;
 
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.Service;
-import com.intellij.openapi.project.Project;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.idea.maven.model.MavenId;
 import org.jetbrains.idea.maven.model.MavenPlugin;
 import org.jetbrains.idea.maven.project.MavenProject;
 import org.jetbrains.idea.maven.utils.MavenArtifactUtil;
 import org.jetbrains.idea.maven.utils.MavenPluginInfo;
 
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Caches Maven plugin mojo metadata loaded from the local repository.
+ * Caches Maven plugin mojo metadata loaded from the local repository, across projects and IDE restarts.
  * <p>
- * Reading plugin descriptors can be expensive in large projects; this service keeps the data in-memory per-project.
+ * Reading plugin descriptors means opening the plugin jars. Entries are keyed by the local repository and plugin
+ * coordinates and hold the modification time of the plugin jar, which is checked on every {@link #getMojoDisplayNames
+ * load}. Menus should not touch the disk, they take only {@link #getCachedMojoDisplayNames entries} validated since
+ * loading from disk or since the plugins of a project were resolved again, and let {@link #prefetch} validate or load
+ * the rest in background.
+ * <p>
+ * Changes are saved in background once no entry changed for a while. When full, the least recently used entries are
+ * evicted, entries not used since loading first.
  */
-@Service(Service.Level.PROJECT)
-public final class MavenPluginMojoCacheService {
-	private final ConcurrentHashMap<MavenId, List<String>> mojoDisplayNamesByPluginId = new ConcurrentHashMap<>();
+@Service(Service.Level.APP)
+public final class MavenPluginMojoCacheService implements Disposable {
+	private static final Logger LOG = Logger.getInstance(MavenPluginMojoCacheService.class);
+	private static final int FORMAT_VERSION = 2;
+	private static final int MAX_ENTRIES = 5_000;
+	private static final int EVICTED_ENTRIES = MAX_ENTRIES / 10;
+	private static final long SAVE_DELAY_MS = 30_000;
 
-	public static @NotNull MavenPluginMojoCacheService getInstance(@NotNull Project project) {
-		return project.getService(MavenPluginMojoCacheService.class);
-	}
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong useClock = new AtomicLong();
+	private final Object evictionLock = new Object();
+	private final Object saveLock = new Object();
+	private final Alarm saveAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+	private final AtomicBoolean saveScheduled = new AtomicBoolean();
+	private volatile long lastChangeNanos;
+	private final Map<String, CompletableFuture<List<String>>> loading = new ConcurrentHashMap<>();
+	private final ExecutorService prefetchExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Maven Helper Pro Plugin Mojo Prefetch",
+		Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+	private volatile boolean loaded;
+	private volatile boolean dirty;
 
-	public MavenPluginMojoCacheService(@NotNull Project project) {
+	public static @NotNull MavenPluginMojoCacheService getInstance() {
+		return ApplicationManager.getApplication().getService(MavenPluginMojoCacheService.class);
 	}
 
 	public @NotNull List<String> getMojoDisplayNames(@NotNull MavenProject mavenProject, @NotNull MavenPlugin plugin) {
@@ -33,14 +74,322 @@ public final class MavenPluginMojoCacheService {
 		if (mavenId == null) {
 			return List.of();
 		}
-		return mojoDisplayNamesByPluginId.computeIfAbsent(mavenId, id -> loadMojoDisplayNames(mavenProject, id));
+		ensureLoaded();
+		File localRepository = mavenProject.getLocalRepository();
+		String key = getKey(localRepository, mavenId);
+		Entry entry = entries.get(key);
+		long lastModified = getLastModified(getPluginJar(localRepository, mavenId));
+		if (entry != null && !entry.failed && entry.lastModified == lastModified) {
+			entry.lastUsed = useClock.incrementAndGet();
+			if (!entry.verified) {
+				entries.replace(key, entry, entry.verify());
+			}
+			return entry.mojos;
+		}
+
+		// read outside of the map, so that other plugins are not blocked by the jar
+		List<String> mojos = loadMojoDisplayNames(localRepository, mavenId);
+		put(key, new Entry(lastModified, mojos, true, false));
+		changed();
+		return mojos;
 	}
 
-	private static @NotNull List<String> loadMojoDisplayNames(@NotNull MavenProject mavenProject, @NotNull MavenId pluginId) {
-		MavenPluginInfo pluginInfo = MavenArtifactUtil.readPluginInfo(mavenProject.getLocalRepository(), pluginId);
+	/**
+	 * Non-blocking variant of {@link #getMojoDisplayNames} for menus.
+	 *
+	 * @return null if the plugin needs to be loaded or validated first, see {@link #prefetch}
+	 */
+	public @Nullable List<String> getCachedMojoDisplayNames(@NotNull MavenProject mavenProject, @NotNull MavenPlugin plugin) {
+		MavenId mavenId = plugin.getMavenId();
+		if (mavenId == null) {
+			return List.of();
+		}
+		if (!loaded) {
+			return null;
+		}
+		Entry entry = entries.get(getKey(mavenProject.getLocalRepository(), mavenId));
+		if (entry == null || !entry.verified) {
+			return null;
+		}
+		entry.lastUsed = useClock.incrementAndGet();
+		return entry.mojos;
+	}
+
+	/**
+	 * Loads and validates mojos of all plugins of the projects in background, each distinct plugin once, also when
+	 * requested again while loading.
+	 *
+	 * A plugin failing to load gets no goals until its plugins are resolved again, so that menus do not wait for it.
+	 *
+	 * @param onLoaded called from a background thread once all plugins are ready, if any had to be loaded
+	 */
+	public void prefetch(@NotNull Collection<MavenProject> mavenProjects, @NotNull Runnable onLoaded) {
+		List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+		for (MavenProject mavenProject : mavenProjects) {
+			for (MavenPlugin plugin : mavenProject.getDeclaredPlugins()) {
+				if (getCachedMojoDisplayNames(mavenProject, plugin) != null) {
+					continue;
+				}
+				String key = getKey(mavenProject.getLocalRepository(), plugin.getMavenId());
+				CompletableFuture<List<String>> future = new CompletableFuture<>();
+				CompletableFuture<List<String>> existing = loading.putIfAbsent(key, future);
+				if (existing != null) {
+					futures.add(existing);
+					continue;
+				}
+				futures.add(future);
+				prefetchExecutor.execute(() -> {
+					try {
+						future.complete(getMojoDisplayNames(mavenProject, plugin));
+					} catch (Throwable e) {
+						if (!(e instanceof ProcessCanceledException)) {
+							LOG.warn("Failed to read plugin descriptor of " + key, e);
+						}
+						put(key, Entry.failed());
+						future.complete(List.of());
+					} finally {
+						loading.remove(key, future);
+					}
+				});
+			}
+		}
+		if (!futures.isEmpty()) {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((result, error) -> onLoaded.run());
+		}
+	}
+
+	/**
+	 * Plugins of the project were resolved again, possibly re-downloaded, validate their entries on next use.
+	 */
+	public void pluginsResolved(@NotNull MavenProject mavenProject) {
+		if (!loaded) {
+			return;
+		}
+		File localRepository = mavenProject.getLocalRepository();
+		for (MavenPlugin plugin : mavenProject.getDeclaredPlugins()) {
+			MavenId mavenId = plugin.getMavenId();
+			if (mavenId != null) {
+				entries.computeIfPresent(getKey(localRepository, mavenId), (key, entry) -> entry.verified ? entry.unverify() : entry);
+			}
+		}
+	}
+
+	private void put(@NotNull String key, @NotNull Entry entry) {
+		if (entries.size() >= MAX_ENTRIES) {
+			evictLeastRecentlyUsed();
+		}
+		entry.lastUsed = useClock.incrementAndGet();
+		entries.put(key, entry);
+	}
+
+	private void evictLeastRecentlyUsed() {
+		synchronized (evictionLock) {
+			if (entries.size() < MAX_ENTRIES) {
+				return;
+			}
+			// lookups running meanwhile may keep a few entries that would have been evicted, which does not matter
+			long[] lastUsed = entries.values().stream().mapToLong(entry -> entry.lastUsed).toArray();
+			Arrays.sort(lastUsed);
+			int evicted = Math.min(EVICTED_ENTRIES, lastUsed.length);
+			long threshold = lastUsed[evicted - 1];
+			int size = entries.size();
+			entries.values().removeIf(entry -> entry.lastUsed < threshold);
+			// entries used at the same tick, e.g. all not used since loading
+			int[] remaining = {evicted - (size - entries.size())};
+			entries.values().removeIf(entry -> entry.lastUsed == threshold && remaining[0]-- > 0);
+		}
+	}
+
+	private void changed() {
+		dirty = true;
+		lastChangeNanos = System.nanoTime();
+		if (saveScheduled.compareAndSet(false, true)) {
+			scheduleSave(SAVE_DELAY_MS);
+		}
+	}
+
+	private void scheduleSave(long delayMs) {
+		if (!saveAlarm.isDisposed()) {
+			saveAlarm.addRequest(this::saveWhenIdle, delayMs);
+		}
+	}
+
+	/**
+	 * debounced, a prefetch loads many plugins in a row
+	 */
+	private void saveWhenIdle() {
+		long idleMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastChangeNanos);
+		if (idleMs < SAVE_DELAY_MS) {
+			scheduleSave(SAVE_DELAY_MS - idleMs);
+			return;
+		}
+		saveScheduled.set(false);
+		if (dirty) {
+			save();
+		}
+	}
+
+	private static @NotNull List<String> loadMojoDisplayNames(@NotNull File localRepository, @NotNull MavenId pluginId) {
+		MavenPluginInfo pluginInfo = MavenArtifactUtil.readPluginInfo(localRepository, pluginId);
 		if (pluginInfo == null) {
 			return List.of();
 		}
 		return pluginInfo.getMojos().stream().map(MavenPluginInfo.Mojo::getDisplayName).toList();
 	}
+
+	/**
+	 * the cache is shared by projects, which may use different local repositories
+	 */
+	private static @NotNull String getKey(@NotNull File localRepository, @NotNull MavenId mavenId) {
+		return localRepository.getPath() + "|" + mavenId.getGroupId() + ":" + mavenId.getArtifactId() + ":" + mavenId.getVersion();
+	}
+
+	private static @Nullable Path getPluginJar(@NotNull File localRepository, @NotNull MavenId mavenId) {
+		if (mavenId.getGroupId() == null || mavenId.getArtifactId() == null || mavenId.getVersion() == null) {
+			return null;
+		}
+		return localRepository.toPath()
+			.resolve(mavenId.getGroupId().replace('.', '/'))
+			.resolve(mavenId.getArtifactId())
+			.resolve(mavenId.getVersion())
+			.resolve(mavenId.getArtifactId() + "-" + mavenId.getVersion() + ".jar");
+	}
+
+	/**
+	 * @return -1 if the jar does not exist
+	 */
+	private static long getLastModified(@Nullable Path jar) {
+		if (jar == null) {
+			return -1;
+		}
+		try {
+			return Files.getLastModifiedTime(jar).toMillis();
+		} catch (NoSuchFileException e) {
+			return -1;
+		} catch (IOException e) {
+			LOG.debug(e);
+			return -1;
+		}
+	}
+
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+		synchronized (this) {
+			if (loaded) {
+				return;
+			}
+			load();
+			loaded = true;
+		}
+	}
+
+	private void load() {
+		Path file = getCacheFile();
+		if (!Files.isRegularFile(file)) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != FORMAT_VERSION) {
+				return;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				long lastModified = in.readLong();
+				int mojoCount = in.readInt();
+				List<String> mojos = new ArrayList<>(mojoCount);
+				for (int j = 0; j < mojoCount; j++) {
+					mojos.add(in.readUTF());
+				}
+				// the repository may have changed while the IDE was closed; lastUsed stays 0, older than anything used since
+				entries.put(key, new Entry(lastModified, List.copyOf(mojos), false, false));
+			}
+		} catch (IOException e) {
+			LOG.warn("Failed to load " + file, e);
+			entries.clear();
+		}
+	}
+
+	private void save() {
+		Path file = getCacheFile();
+		synchronized (saveLock) {
+			// cleared before the snapshot, so that changes made while writing are saved next time
+			dirty = false;
+			try {
+				Files.createDirectories(file.getParent());
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+					Map<String, Entry> snapshot = Map.copyOf(entries);
+					out.writeInt(FORMAT_VERSION);
+					out.writeInt((int) snapshot.values().stream().filter(entry -> !entry.failed).count());
+					for (Map.Entry<String, Entry> e : snapshot.entrySet()) {
+						if (e.getValue().failed) {
+							continue;
+						}
+						out.writeUTF(e.getKey());
+						out.writeLong(e.getValue().lastModified);
+						out.writeInt(e.getValue().mojos.size());
+						for (String mojo : e.getValue().mojos) {
+							out.writeUTF(mojo);
+						}
+					}
+				}
+			} catch (IOException e) {
+				dirty = true;
+				LOG.warn("Failed to save " + file, e);
+			}
+		}
+	}
+
+	private static @NotNull Path getCacheFile() {
+		return PathManager.getSystemDir().resolve("maven-helper-pro").resolve("plugin-mojos.bin");
+	}
+
+	@Override
+	public void dispose() {
+		// the alarm is already disposed as a child of this service
+		if (loaded && dirty) {
+			save();
+		}
+	}
+
+	/**
+	 * @param failed the plugin could not be read, it is loaded again once unverified and never saved
+	 */
+	private static final class Entry {
+		private final long lastModified;
+		private final @NotNull List<String> mojos;
+		private final boolean verified;
+		private final boolean failed;
+		/**
+		 * {@link #useClock} tick of the last lookup, written without synchronization
+		 */
+		private long lastUsed;
+
+		private Entry(long lastModified, @NotNull List<String> mojos, boolean verified, boolean failed) {
+			this.lastModified = lastModified;
+			this.mojos = mojos;
+			this.verified = verified;
+			this.failed = failed;
+		}
+
+		static Entry failed() {
+			return new Entry(-1, List.of(), true, true);
+		}
+
+		Entry verify() {
+			return copy(true);
+		}
+
+		Entry unverify() {
+			return copy(false);
+		}
+
+		private Entry copy(boolean verified) {
+			Entry copy = new Entry(lastModified, mojos, verified, failed);
+			copy.lastUsed = lastUsed;
+			return copy;
+		}
+	}
 }
@@ -0,0 +1,131 @@
+package krasa.mavenhelper;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunManagerListener;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.PathUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.execution.MavenRunConfiguration;
+import org.jetbrains.idea.maven.execution.MavenRunConfigurationType;
+
+import java.util.*;
+
+/**
+ * Saved Maven run configurations by canonical working directory, for the Run/Debug Maven menus.
+ * <p>
+ * Built on first use and then kept up to date from {@link RunManagerListener} events, so a lookup does not
+ * canonicalize the paths of all configurations.
+ */
+@Service(Service.Level.PROJECT)
+public final class MavenRunConfigurationIndex implements Disposable {
+	private final Project project;
+	/**
+	 * null until first used
+	 */
+	private Map<String, List<RunnerAndConfigurationSettings>> byWorkingDirectory;
+	private final Map<RunnerAndConfigurationSettings, String> workingDirectories = new IdentityHashMap<>();
+
+	public static @NotNull MavenRunConfigurationIndex getInstance(@NotNull Project project) {
+		return project.getService(MavenRunConfigurationIndex.class);
+	}
+
+	public MavenRunConfigurationIndex(@NotNull Project project) {
+		this.project = project;
+		project.getMessageBus().connect(this).subscribe(RunManagerListener.TOPIC, new RunManagerListener() {
+			@Override
+			public void runConfigurationAdded(@NotNull RunnerAndConfigurationSettings settings) {
+				synchronized (MavenRunConfigurationIndex.this) {
+					if (byWorkingDirectory != null) {
+						add(settings);
+					}
+				}
+			}
+
+			@Override
+			public void runConfigurationRemoved(@NotNull RunnerAndConfigurationSettings settings) {
+				synchronized (MavenRunConfigurationIndex.this) {
+					if (byWorkingDirectory != null) {
+						remove(settings);
+					}
+				}
+			}
+
+			@Override
+			public void runConfigurationChanged(@NotNull RunnerAndConfigurationSettings settings) {
+				synchronized (MavenRunConfigurationIndex.this) {
+					// appending to the new directory would change the order of the menu, rebuild it in the order of RunManager
+					if (byWorkingDirectory != null && !Objects.equals(workingDirectories.get(settings), getWorkingDirectory(settings))) {
+						clear();
+					}
+				}
+			}
+
+			@Override
+			public void stateLoaded(@NotNull RunManager runManager, boolean isFirstLoadState) {
+				// configurations were reloaded from disk, e.g. after a VCS update
+				synchronized (MavenRunConfigurationIndex.this) {
+					clear();
+				}
+			}
+		});
+	}
+
+	/**
+	 * @param directory canonical path of the module directory
+	 */
+	public synchronized @NotNull List<RunnerAndConfigurationSettings> getConfigurations(@NotNull String directory) {
+		if (byWorkingDirectory == null) {
+			byWorkingDirectory = new HashMap<>();
+			for (RunnerAndConfigurationSettings settings : RunManager.getInstance(project).getConfigurationSettingsList(MavenRunConfigurationType.getInstance())) {
+				add(settings);
+			}
+		}
+		List<RunnerAndConfigurationSettings> configurations = byWorkingDirectory.get(directory);
+		return configurations != null ? List.copyOf(configurations) : List.of();
+	}
+
+	private void add(@NotNull RunnerAndConfigurationSettings settings) {
+		String directory = getWorkingDirectory(settings);
+		if (directory != null) {
+			workingDirectories.put(settings, directory);
+			byWorkingDirectory.computeIfAbsent(directory, d -> new ArrayList<>(1)).add(settings);
+		}
+	}
+
+	private void remove(@NotNull RunnerAndConfigurationSettings settings) {
+		String directory = workingDirectories.remove(settings);
+		if (directory == null) {
+			return;
+		}
+		List<RunnerAndConfigurationSettings> configurations = byWorkingDirectory.get(directory);
+		if (configurations != null) {
+			configurations.remove(settings);
+			if (configurations.isEmpty()) {
+				byWorkingDirectory.remove(directory);
+			}
+		}
+	}
+
+	private void clear() {
+		byWorkingDirectory = null;
+		workingDirectories.clear();
+	}
+
+	@Override
+	public synchronized void dispose() {
+		clear();
+	}
+
+	@Nullable
+	private static String getWorkingDirectory(@NotNull RunnerAndConfigurationSettings settings) {
+		if (!(settings.getConfiguration() instanceof MavenRunConfiguration configuration)) {
+			return null;
+		}
+		String workingDirPath = configuration.getRunnerParameters().getWorkingDirPath();
+		return workingDirPath != null ? PathUtil.getCanonicalPath(workingDirPath) : null;
+	}
+}
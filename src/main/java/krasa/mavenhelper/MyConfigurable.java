@@ -2,12 +2,15 @@ package krasa.mavenhelper;
 
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.options.ConfigurationException;
+import com.intellij.openapi.ui.Messages;
 import krasa.mavenhelper.gui.ApplicationSettingsForm;
+import krasa.mavenhelper.model.AliasEngine;
 import krasa.mavenhelper.model.ApplicationSettings;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.util.List;
 
 public class MyConfigurable implements Configurable {
 	private ApplicationSettingsForm form;
@@ -46,10 +49,18 @@ public class MyConfigurable implements Configurable {
 
 	@Override
 	public void apply() throws ConfigurationException {
+		ApplicationSettings settings = form.getSettings();
+		List<String> aliasProblems = AliasEngine.validate(settings.getAliases().getAliases(), ApplicationSettings.MACROS);
+		// aliases saved before keep working as they did, warn only about what was changed now
+		aliasProblems.removeAll(AliasEngine.validate(state.getAliases().getAliases(), ApplicationSettings.MACROS));
 		applicationService.unRegisterActions();
-		state = form.getSettings().clone();
+		state = settings.clone();
 		applicationService.loadState(state);
 		applicationService.initShortcuts();
+		if (!aliasProblems.isEmpty()) {
+			Messages.showWarningDialog(form.getRootComponent(),
+				"Some aliases may not expand as expected:\n" + String.join("\n", aliasProblems), "Alias Warnings");
+		}
 	}
 
 	@Override
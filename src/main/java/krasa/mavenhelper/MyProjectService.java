@@ -12,16 +12,22 @@ import org.jetbrains.idea.maven.project.MavenProjectsManager;
 import org.jetbrains.idea.maven.project.MavenProjectsTree;
 import org.jetbrains.idea.maven.server.NativeMavenProjectHolder;
 
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Dispatches Maven resolve events to analyzer editors.
+ * <p>
+ * Events are coalesced for {@link #RESOLVE_DEBOUNCE_MS} and delivered on the EDT in one batch. Listeners are indexed
+ * by the pom files they observe, so a reimport of many modules calls each affected listener once with a changeset of
+ * its modules, and never calls listeners of modules that were not resolved.
+ */
 public class MyProjectService {
 	private static final int RESOLVE_DEBOUNCE_MS = 250;
 
-	private final List<MyEventListener> myEventListeners = new CopyOnWriteArrayList<>();
-	private final Map<VirtualFile, ProjectResolvedEvent> pendingResolvedEvents = new ConcurrentHashMap<>();
+	private final Map<VirtualFile, List<MyEventListener>> listenersByFile = new ConcurrentHashMap<>();
+	private final Map<VirtualFile, ResolvedProject> pendingResolvedEvents = new ConcurrentHashMap<>();
 	private final Alarm resolveAlarm;
 
 	public static MyProjectService getInstance(Project project) {
@@ -47,14 +53,16 @@ public class MyProjectService {
 
 			@Override
 			public void projectResolved(@NotNull Pair<MavenProject, MavenProjectChanges> projectWithChanges, @Nullable NativeMavenProjectHolder nativeMavenProject) {
-				if (myEventListeners.isEmpty()) {
+				VirtualFile projectFile = projectWithChanges.getFirst().getFile();
+				if (projectFile == null || !listenersByFile.containsKey(projectFile)) {
 					return;
 				}
 
-				VirtualFile projectFile = projectWithChanges.getFirst().getFile();
-				if (projectFile != null) {
-					pendingResolvedEvents.put(projectFile, new ProjectResolvedEvent(projectWithChanges, nativeMavenProject));
-				}
+				// the latest resolve wins, but dependency changes of the earlier ones must not get lost
+				boolean dependenciesChanged = projectWithChanges.getSecond().hasDependencyChanges();
+				pendingResolvedEvents.merge(projectFile,
+					new ResolvedProject(projectWithChanges.getFirst(), projectWithChanges.getSecond(), nativeMavenProject, dependenciesChanged),
+					(previous, latest) -> previous.dependenciesChanged() && !latest.dependenciesChanged() ? latest.withDependenciesChanged() : latest);
 
 				resolveAlarm.cancelAllRequests();
 				resolveAlarm.addRequest(() -> flushResolvedEvents(project), RESOLVE_DEBOUNCE_MS);
@@ -79,40 +87,86 @@ public class MyProjectService {
 
 	private void flushResolvedEvents(@NotNull Project project) {
 		if (project.isDisposed()) {
-			return;
-		}
-		if (myEventListeners.isEmpty()) {
 			pendingResolvedEvents.clear();
 			return;
 		}
 
-		List<ProjectResolvedEvent> events = List.copyOf(pendingResolvedEvents.values());
-		pendingResolvedEvents.clear();
-
-		for (ProjectResolvedEvent event : events) {
-			for (MyEventListener listener : myEventListeners) {
-				listener.projectResolved(event.projectWithChanges, event.nativeMavenProject);
+		Map<MyEventListener, List<ResolvedProject>> changesets = new IdentityHashMap<>();
+		for (Map.Entry<VirtualFile, ResolvedProject> entry : pendingResolvedEvents.entrySet()) {
+			// a resolve merged meanwhile replaced the entry and scheduled another flush, which delivers it
+			if (!pendingResolvedEvents.remove(entry.getKey(), entry.getValue())) {
+				continue;
+			}
+			List<MyEventListener> listeners = listenersByFile.get(entry.getKey());
+			if (listeners == null) {
+				continue;
+			}
+			for (MyEventListener listener : listeners) {
+				changesets.computeIfAbsent(listener, l -> new ArrayList<>(1)).add(entry.getValue());
 			}
 		}
+
+		for (Map.Entry<MyEventListener, List<ResolvedProject>> entry : changesets.entrySet()) {
+			entry.getKey().projectsResolved(new ResolvedChangeset(Collections.unmodifiableList(entry.getValue())));
+		}
 	}
 
-	public void register(MyEventListener myEventListener) {
-		myEventListeners.add(myEventListener);
+	/**
+	 * @param pomFile only resolves of the Maven project of this pom are delivered to the listener
+	 */
+	public void register(@NotNull VirtualFile pomFile, @NotNull MyEventListener myEventListener) {
+		listenersByFile.compute(pomFile, (file, listeners) -> {
+			List<MyEventListener> result = listeners != null ? listeners : new CopyOnWriteArrayList<>();
+			result.add(myEventListener);
+			return result;
+		});
 	}
 
 	public void unregister(MyEventListener myEventListener) {
-		if (myEventListener != null) {
-			myEventListeners.remove(myEventListener);
+		if (myEventListener == null) {
+			return;
+		}
+		for (VirtualFile file : listenersByFile.keySet()) {
+			listenersByFile.computeIfPresent(file, (f, listeners) -> {
+				listeners.remove(myEventListener);
+				return listeners.isEmpty() ? null : listeners;
+			});
 		}
 	}
 
 	public interface MyEventListener {
-		void projectResolved(@NotNull Pair<MavenProject, MavenProjectChanges> projectWithChanges, @Nullable NativeMavenProjectHolder nativeMavenProject);
+		/**
+		 * Called on the EDT once per batch of coalesced resolves, only when at least one observed project was resolved.
+		 */
+		void projectsResolved(@NotNull ResolvedChangeset changeset);
 	}
 
-	private record ProjectResolvedEvent(
-		@NotNull Pair<MavenProject, MavenProjectChanges> projectWithChanges,
-		@Nullable NativeMavenProjectHolder nativeMavenProject
+	/**
+	 * Resolved projects observed by one listener, each project at most once.
+	 */
+	public record ResolvedChangeset(@NotNull List<ResolvedProject> projects) {
+		@Nullable
+		public ResolvedProject find(@NotNull MavenProject mavenProject) {
+			for (ResolvedProject project : projects) {
+				if (project.mavenProject() == mavenProject) {
+					return project;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * @param dependenciesChanged whether this or any coalesced earlier resolve changed dependencies
+	 */
+	public record ResolvedProject(
+		@NotNull MavenProject mavenProject,
+		@NotNull MavenProjectChanges changes,
+		@Nullable NativeMavenProjectHolder nativeMavenProject,
+		boolean dependenciesChanged
 	) {
+		private ResolvedProject withDependenciesChanged() {
+			return new ResolvedProject(mavenProject, changes, nativeMavenProject, true);
+		}
 	}
 }
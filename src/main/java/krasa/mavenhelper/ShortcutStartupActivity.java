@@ -18,6 +18,10 @@ public class ShortcutStartupActivity implements StartupActivity, DumbAware {
 		if (registered.compareAndSet(false, true)) {
 			MavenHelperApplicationService.getInstance().initShortcuts();
 		}
+		if (MavenHelperApplicationService.getInstance().getState().isEnableMavenPluginGoalDiscovery()) {
+			// listen for imports, so that plugin goals are prefetched before the first menu opens
+			MavenActionCacheService.getInstance(project);
+		}
 	}
 
 }
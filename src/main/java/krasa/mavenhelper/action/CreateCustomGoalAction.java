@@ -56,6 +56,7 @@ public class CreateCustomGoalAction extends MyAnAction {
 				PropertiesComponent.getInstance().setValue(GoalEditor.SAVE, editor.isPersist(), true);
 				if (editor.isPersist()) {
 					state.getGoals().add(goal);
+					instance.settingsChanged();
 					instance.registerAction(goal, getRunGoalAction(goal, null));
 				}
 
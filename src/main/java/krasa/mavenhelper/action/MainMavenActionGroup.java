@@ -1,6 +1,5 @@
 package krasa.mavenhelper.action;
 
-import com.intellij.execution.RunManager;
 import com.intellij.execution.RunnerAndConfigurationSettings;
 import com.intellij.execution.executors.DefaultRunExecutor;
 import com.intellij.icons.AllIcons;
@@ -9,15 +8,15 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
 import com.intellij.util.PathUtil;
+import krasa.mavenhelper.MavenActionCacheService;
 import krasa.mavenhelper.MavenPluginMojoCacheService;
+import krasa.mavenhelper.MavenRunConfigurationIndex;
 import krasa.mavenhelper.MavenHelperApplicationService;
 import krasa.mavenhelper.icons.MyIcons;
 import krasa.mavenhelper.model.ApplicationSettings;
 import krasa.mavenhelper.model.Goal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.idea.maven.execution.MavenRunConfiguration;
-import org.jetbrains.idea.maven.execution.MavenRunConfigurationType;
 import org.jetbrains.idea.maven.model.MavenPlugin;
 import org.jetbrains.idea.maven.project.actions.ReimportProjectAction;
 
@@ -42,16 +41,25 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 	@NotNull
 	@Override
 	public AnAction[] getChildren(@Nullable AnActionEvent e) {
-		if (e != null) {
-			return getActions(e.getDataContext(), e.getProject());
+		if (e != null && e.getProject() != null) {
+			Project project = e.getProject();
+			MavenProjectInfo mavenProjectInfo = getMavenProject(e.getDataContext());
+			if (mavenProjectInfo.mavenProject == null) {
+				return new AnAction[0];
+			}
+			return MavenActionCacheService.getInstance(project).getActions(this, mavenProjectInfo.mavenProject, mavenProjectInfo.childProject,
+				() -> getActions(mavenProjectInfo, project));
 		} else {
 			return new AnAction[0];
 		}
 	}
 
 	public AnAction[] getActions(DataContext dataContext, Project project) {
+		return getActions(getMavenProject(dataContext), project);
+	}
+
+	private AnAction[] getActions(MavenProjectInfo mavenProjectInfo, Project project) {
 		List<AnAction> result = new ArrayList<>();
-		MavenProjectInfo mavenProjectInfo = getMavenProject(dataContext);
 		if (mavenProjectInfo.mavenProject != null) {
 			addTestFile(result);
 			separator(result);
@@ -89,16 +97,10 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 	}
 
 	private void addRunConfigurations(List<AnAction> result, Project project, final MavenProjectInfo mavenProject) {
-		final List<RunnerAndConfigurationSettings> configurationSettings = RunManager.getInstance(project).getConfigurationSettingsList(
-				MavenRunConfigurationType.getInstance());
-
 		String directory = PathUtil.getCanonicalPath(mavenProject.mavenProject.getDirectory());
 
-		for (RunnerAndConfigurationSettings cfg : configurationSettings) {
-			MavenRunConfiguration mavenRunConfiguration = (MavenRunConfiguration) cfg.getConfiguration();
-			if (directory.equals(PathUtil.getCanonicalPath(mavenRunConfiguration.getRunnerParameters().getWorkingDirPath()))) {
-				result.add(getRunConfigurationAction(project, cfg));
-			}
+		for (RunnerAndConfigurationSettings cfg : MavenRunConfigurationIndex.getInstance(project).getConfigurations(directory)) {
+			result.add(getRunConfigurationAction(project, cfg));
 		}
 	}
 
@@ -164,12 +166,17 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 	private List<DefaultActionGroup> getPlugins(Project project, MavenProjectInfo mavenProject, @NotNull Set<String> pluginGoalsSet) {
 		List<DefaultActionGroup> mavenActionGroups = new ArrayList<>();
 		List<MavenPlugin> plugins = mavenProject.mavenProject.getDeclaredPlugins();
+		boolean loading = false;
 		for (var mavenPlugin : plugins) {
 			DefaultActionGroup plugin = new DefaultActionGroup(mavenPlugin.getArtifactId(), true);
 			plugin.getTemplatePresentation().setIcon(getIcon());
-			addPluginGoals(project, mavenPlugin, plugin, mavenProject, pluginGoalsSet);
+			loading |= !addPluginGoals(project, mavenPlugin, plugin, mavenProject, pluginGoalsSet);
 			mavenActionGroups.add(plugin);
 		}
+		if (loading) {
+			// the menu is rebuilt once loaded
+			MavenActionCacheService.getInstance(project).prefetchPluginGoals(List.of(mavenProject.mavenProject));
+		}
 
 		return mavenActionGroups;
 	}
@@ -182,12 +189,20 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 		return MyIcons.PHASES_CLOSED;
 	}
 
-	private void addPluginGoals(Project project, MavenPlugin mavenPlugin, DefaultActionGroup pluginGroup, MavenProjectInfo mavenProject, Set<String> pluginGoalsSet) {
-		List<String> mojos = MavenPluginMojoCacheService.getInstance(project).getMojoDisplayNames(mavenProject.mavenProject, mavenPlugin);
+	/**
+	 * @return false if the goals are not loaded yet
+	 */
+	private boolean addPluginGoals(Project project, MavenPlugin mavenPlugin, DefaultActionGroup pluginGroup, MavenProjectInfo mavenProject, Set<String> pluginGoalsSet) {
+		List<String> mojos = MavenPluginMojoCacheService.getInstance().getCachedMojoDisplayNames(mavenProject.mavenProject, mavenPlugin);
+		if (mojos == null) {
+			pluginGroup.add(new LoadingAction());
+			return false;
+		}
 		for (String mojo : mojos) {
 			pluginGoalsSet.add(mojo);
 			pluginGroup.add(createGoalRunAction(new Goal(mojo), MyIcons.PLUGIN_GOAL, true, mavenProject));
 		}
+		return true;
 	}
 
 	protected AnAction createGoalRunAction(Goal goal, final Icon icon, boolean plugin, MavenProjectInfo mavenProject) {
@@ -204,4 +219,24 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 	public @NotNull ActionUpdateThread getActionUpdateThread() {
 		return ActionUpdateThread.BGT;
 	}
+
+	private static class LoadingAction extends AnAction implements DumbAware {
+		LoadingAction() {
+			super("Loading goals...");
+		}
+
+		@Override
+		public void actionPerformed(@NotNull AnActionEvent e) {
+		}
+
+		@Override
+		public void update(@NotNull AnActionEvent e) {
+			e.getPresentation().setEnabled(false);
+		}
+
+		@Override
+		public @NotNull ActionUpdateThread getActionUpdateThread() {
+			return ActionUpdateThread.BGT;
+		}
+	}
 }
@@ -109,6 +109,7 @@ public class QuickRunMavenGoalAction extends QuickSwitchSchemeAction implements
 					if (selectedItem != null && selectedItem.getAction() instanceof MyActionGroup) {
 						MyActionGroup action = (MyActionGroup) selectedItem.getAction();
 						boolean deleted = MavenHelperApplicationService.getInstance().getState().removeGoal(action.getGoal());
+						MavenHelperApplicationService.getInstance().settingsChanged();
 
 						if (deleted) {
 							model.deleteItem(selectedItem);
@@ -273,6 +274,7 @@ public class QuickRunMavenGoalAction extends QuickSwitchSchemeAction implements
 				@Override
 				public void actionPerformed(@NotNull AnActionEvent anActionEvent) {
 					MavenHelperApplicationService.getInstance().getState().removeGoal(goal);
+					MavenHelperApplicationService.getInstance().settingsChanged();
 				}
 			};
 		}
@@ -94,8 +94,8 @@ public class RunTestFileAction extends DumbAwareAction {
 	}
 
 	private void addFailSafeParameters(AnActionEvent e, PsiClassOwner psiFile, List<String> goals, MavenPlugin mavenProjectPlugin) {
-		ComparableVersion version = new ComparableVersion(mavenProjectPlugin.getVersion());
-		ComparableVersion minimumForMethodTest = new ComparableVersion("2.7.3");
+		ComparableVersion version = ComparableVersion.parse(mavenProjectPlugin.getVersion());
+		ComparableVersion minimumForMethodTest = ComparableVersion.parse("2.7.3");
 		if (minimumForMethodTest.compareTo(version) == 1) {
 			goals.add("-Dit.test=" + Utils.getTestArgumentWithoutMethod(e, psiFile));
 		} else {
@@ -36,8 +36,8 @@ public class DebugTestFileAction extends RunTestFileAction {
 	private void addParams(MavenProject mavenProject, List<String> goals) {
 		MavenPlugin surefire = mavenProject.findPlugin("org.apache.maven.plugins", "maven-surefire-plugin");
 		if (surefire != null) {
-			ComparableVersion version = new ComparableVersion(surefire.getVersion());
-			if (new ComparableVersion("2.14").compareTo(version) >= 1) {
+			ComparableVersion version = ComparableVersion.parse(surefire.getVersion());
+			if (ComparableVersion.parse("2.14").compareTo(version) >= 1) {
 				goals.addAll(Debug.DEBUG_FORK_MODE_LEGACY);
 			} else {
 				goals.addAll(Debug.DEBUG_FORK_MODE);
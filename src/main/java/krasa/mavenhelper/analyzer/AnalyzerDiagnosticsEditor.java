@@ -0,0 +1,167 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.codeHighlighting.BackgroundEditorHighlighter;
+import com.intellij.ide.structureView.StructureViewBuilder;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.fileEditor.FileEditorLocation;
+import com.intellij.openapi.fileEditor.FileEditorState;
+import com.intellij.openapi.fileEditor.FileEditorStateLevel;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.UserDataHolderBase;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import krasa.mavenhelper.AnalyzerTelemetryService;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Shows {@link AnalyzerTelemetryService} statistics and exports them as JSON, for attaching to bug reports.
+ */
+public final class AnalyzerDiagnosticsEditor extends UserDataHolderBase implements FileEditor {
+	private static final Logger LOG = Logger.getInstance(AnalyzerDiagnosticsEditor.class);
+
+	private final Project project;
+	private final VirtualFile file;
+	private final JPanel rootPanel = new JPanel(new BorderLayout());
+	private final JBTextArea text = new JBTextArea();
+
+	public AnalyzerDiagnosticsEditor(@NotNull Project project, @NotNull VirtualFile file) {
+		this.project = project;
+		this.file = file;
+
+		text.setEditable(false);
+		text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, text.getFont().getSize()));
+
+		JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		JButton refresh = new JButton("Refresh");
+		refresh.addActionListener(e -> refresh());
+		JButton copy = new JButton("Copy JSON");
+		copy.addActionListener(e -> CopyPasteManager.getInstance().setContents(new StringSelection(AnalyzerTelemetryService.getInstance().toJson())));
+		JButton export = new JButton("Export JSON...");
+		export.addActionListener(e -> exportJson());
+		JButton reset = new JButton("Reset");
+		reset.addActionListener(e -> {
+			AnalyzerTelemetryService.getInstance().reset();
+			refresh();
+		});
+		buttons.add(refresh);
+		buttons.add(copy);
+		buttons.add(export);
+		buttons.add(reset);
+
+		rootPanel.add(buttons, BorderLayout.NORTH);
+		rootPanel.add(new JBScrollPane(text), BorderLayout.CENTER);
+		refresh();
+	}
+
+	private void refresh() {
+		text.setText(AnalyzerTelemetryService.getInstance().toText());
+		text.setCaretPosition(0);
+	}
+
+	private void exportJson() {
+		FileSaverDescriptor descriptor = new FileSaverDescriptor("Export Analyzer Diagnostics", "Statistics of Dependency Analyzer operations", "json");
+		VirtualFileWrapper target = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project).save("maven-helper-analyzer-diagnostics.json");
+		if (target == null) {
+			return;
+		}
+		try {
+			Files.writeString(target.getFile().toPath(), AnalyzerTelemetryService.getInstance().toJson(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			LOG.warn(e);
+			Messages.showErrorDialog(project, e.getMessage(), "Export Analyzer Diagnostics");
+		}
+	}
+
+	@Override
+	@NotNull
+	public JComponent getComponent() {
+		return rootPanel;
+	}
+
+	@Override
+	public JComponent getPreferredFocusedComponent() {
+		return text;
+	}
+
+	@Override
+	@NotNull
+	public String getName() {
+		return "Analyzer diagnostics";
+	}
+
+	@Override
+	public VirtualFile getFile() {
+		return file;
+	}
+
+	@Override
+	public void selectNotify() {
+		refresh();
+	}
+
+	@Override
+	public void deselectNotify() {
+	}
+
+	@Override
+	public boolean isModified() {
+		return false;
+	}
+
+	@Override
+	public boolean isValid() {
+		return true;
+	}
+
+	@Override
+	public void setState(@NotNull FileEditorState state) {
+	}
+
+	@Override
+	@NotNull
+	public FileEditorState getState(@NotNull FileEditorStateLevel level) {
+		return FileEditorState.INSTANCE;
+	}
+
+	@Override
+	public void addPropertyChangeListener(@NotNull PropertyChangeListener listener) {
+	}
+
+	@Override
+	public void removePropertyChangeListener(@NotNull PropertyChangeListener listener) {
+	}
+
+	@Override
+	public BackgroundEditorHighlighter getBackgroundHighlighter() {
+		return null;
+	}
+
+	@Override
+	public FileEditorLocation getCurrentLocation() {
+		return null;
+	}
+
+	@Override
+	public StructureViewBuilder getStructureViewBuilder() {
+		return null;
+	}
+
+	@Override
+	public void dispose() {
+	}
+}
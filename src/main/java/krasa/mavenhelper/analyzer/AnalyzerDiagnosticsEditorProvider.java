@@ -0,0 +1,50 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.fileEditor.FileEditorPolicy;
+import com.intellij.openapi.fileEditor.FileEditorProvider;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.model.MavenConstants;
+
+/**
+ * "Analyzer diagnostics" tab of pom files, shown only when the {@link #REGISTRY_KEY} registry key is enabled.
+ */
+public class AnalyzerDiagnosticsEditorProvider implements FileEditorProvider, DumbAware {
+	public static final String REGISTRY_KEY = "maven.helper.pro.analyzer.diagnostics";
+
+	@Override
+	public boolean accept(@NotNull Project project, @NotNull VirtualFile file) {
+		if (project.isDisposed() || !file.isInLocalFileSystem()) {
+			return false;
+		}
+		return MavenConstants.POM_XML.equalsIgnoreCase(file.getName()) && Registry.is(REGISTRY_KEY, false);
+	}
+
+	@Override
+	@NotNull
+	public FileEditor createEditor(@NotNull Project project, @NotNull VirtualFile file) {
+		return new AnalyzerDiagnosticsEditor(project, file);
+	}
+
+	@Override
+	public void disposeEditor(@NotNull FileEditor editor) {
+		Disposer.dispose(editor);
+	}
+
+	@Override
+	@NotNull
+	public String getEditorTypeId() {
+		return "MavenHelperProAnalyzerDiagnostics";
+	}
+
+	@Override
+	@NotNull
+	public FileEditorPolicy getPolicy() {
+		return FileEditorPolicy.PLACE_AFTER_DEFAULT_EDITOR;
+	}
+}
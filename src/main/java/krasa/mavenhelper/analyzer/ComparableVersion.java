@@ -21,6 +21,7 @@ package krasa.mavenhelper.analyzer;
 
 import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * http://grepcode.com/file_/repo1.maven.org/maven2/org.apache.maven/maven-artifact/3.1.1/org/apache/maven/artifact/
@@ -51,17 +52,34 @@ import java.util.*;
  * <li>a dash usually precedes a qualifier, and is always less important than something preceded with a dot.</li>
  * </ul>
  * </p>
+ * <p>
+ * Plain <code>major[.minor[.patch]][-qualifier]</code> versions with a well-known qualifier are packed into a long
+ * and compared without parsing into items; others are parsed on first comparison. Use {@link #parse(String)} to share
+ * instances of the same version.
+ * </p>
  * 
  * @author <a href="mailto:kenney@apache.org">Kenney Westerhof</a>
  * @author <a href="mailto:hboutemy@apache.org">Hervé Boutemy</a>
  * @see <a href="https://cwiki.apache.org/confluence/display/MAVENOLD/Versioning">"Versioning" on Maven Wiki</a>
  */
 public class ComparableVersion implements Comparable<ComparableVersion> {
+	private static final long NOT_PACKED = -1L;
+	private static final int COMPONENT_BITS = 19;
+	private static final int MAX_COMPONENT = (1 << COMPONENT_BITS) - 1;
+	private static final int QUALIFIER_BITS = 3;
+	private static final int MAX_CACHED = 10_000;
+	private static final Map<String, ComparableVersion> CACHE = new ConcurrentHashMap<>();
+
 	private String value;
 
-	private String canonical;
+	/**
+	 * components and qualifier rank, or {@link #NOT_PACKED}
+	 */
+	private long packed;
+
+	private volatile String canonical;
 
-	private ListItem items;
+	private volatile ListItem items;
 
 	private interface Item {
 		int INTEGER_ITEM = 0;
@@ -152,6 +170,29 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
 		 */
 		private static final String RELEASE_VERSION_INDEX = String.valueOf(_QUALIFIERS.indexOf(""));
 
+		private static final int RELEASE_RANK = _QUALIFIERS.indexOf("");
+
+		/**
+		 * @return index of the well-known qualifier from {@code start} to the end of the version, -1 if unknown
+		 */
+		static int qualifierRank(String version, int start) {
+			int length = version.length() - start;
+			if (length == 0) {
+				return RELEASE_RANK;
+			}
+			for (int i = 0; i < QUALIFIERS.length; i++) {
+				if (QUALIFIERS[i].length() == length && version.regionMatches(true, start, QUALIFIERS[i], 0, length)) {
+					return i;
+				}
+			}
+			for (String alias : ALIASES.stringPropertyNames()) {
+				if (alias.length() == length && version.regionMatches(true, start, alias, 0, length)) {
+					return _QUALIFIERS.indexOf(ALIASES.getProperty(alias));
+				}
+			}
+			return -1;
+		}
+
 		private String value;
 
 		public StringItem(String value, boolean followedByDigit) {
@@ -311,10 +352,62 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
 		parseVersion(version);
 	}
 
+	/**
+	 * @return shared instance, must not be re-parsed by {@link #parseVersion(String)}
+	 */
+	public static ComparableVersion parse(String version) {
+		ComparableVersion cached = CACHE.get(version);
+		if (cached == null) {
+			if (CACHE.size() >= MAX_CACHED) {
+				CACHE.clear();
+			}
+			cached = CACHE.computeIfAbsent(version, ComparableVersion::new);
+		}
+		return cached;
+	}
+
+	/**
+	 * Compared and checked for equality only through items, to verify the packed comparison in tests.
+	 */
+	static ComparableVersion withoutPacking(String version) {
+		ComparableVersion result = new ComparableVersion(version);
+		result.packed = NOT_PACKED;
+		return result;
+	}
+
 	public final void parseVersion(String version) {
 		this.value = version;
+		this.packed = pack(version);
+		if (packed == NOT_PACKED) {
+			ListItem parsed = parseItems(version);
+			items = parsed;
+			canonical = parsed.toString();
+		} else {
+			items = null;
+			canonical = null;
+		}
+	}
 
-		items = new ListItem();
+	private ListItem getItems() {
+		ListItem parsed = items;
+		if (parsed == null) {
+			parsed = parseItems(value);
+			items = parsed;
+		}
+		return parsed;
+	}
+
+	private String getCanonical() {
+		String result = canonical;
+		if (result == null) {
+			result = getItems().toString();
+			canonical = result;
+		}
+		return result;
+	}
+
+	private static ListItem parseItems(String version) {
+		ListItem items = new ListItem();
 
 		version = version.toLowerCase(Locale.ENGLISH);
 
@@ -382,7 +475,58 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
 			list.normalize();
 		}
 
-		canonical = items.toString();
+		return items;
+	}
+
+	/**
+	 * Packs <code>major[.minor[.patch]][-qualifier]</code> so that comparing the longs orders versions like their
+	 * items: missing components are 0 and the well-known qualifier rank is compared last.
+	 *
+	 * @return {@link #NOT_PACKED} for anything else, e.g. 4 components, qualifiers with digits or unknown qualifiers
+	 */
+	static long pack(String version) {
+		int length = version.length();
+		long packed = 0;
+		int components = 0;
+		int i = 0;
+		while (true) {
+			int start = i;
+			int component = 0;
+			while (i < length && version.charAt(i) >= '0' && version.charAt(i) <= '9') {
+				component = component * 10 + (version.charAt(i) - '0');
+				if (component > MAX_COMPONENT) {
+					return NOT_PACKED;
+				}
+				i++;
+			}
+			if (i == start) {
+				return NOT_PACKED;
+			}
+			packed = (packed << COMPONENT_BITS) | component;
+			components++;
+			if (i == length || version.charAt(i) != '.') {
+				break;
+			}
+			if (components == 3) {
+				return NOT_PACKED;
+			}
+			i++;
+		}
+		for (; components < 3; components++) {
+			packed <<= COMPONENT_BITS;
+		}
+
+		int rank = StringItem.RELEASE_RANK;
+		if (i < length) {
+			if (version.charAt(i) != '-') {
+				return NOT_PACKED;
+			}
+			rank = StringItem.qualifierRank(version, i + 1);
+			if (rank < 0) {
+				return NOT_PACKED;
+			}
+		}
+		return (packed << QUALIFIER_BITS) | rank;
 	}
 
 	private static Item parseItem(boolean isDigit, String buf) {
@@ -391,7 +535,10 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
 
 	@Override
 	public int compareTo(ComparableVersion o) {
-		return items.compareTo(o.items);
+		if (packed != NOT_PACKED && o.packed != NOT_PACKED) {
+			return Long.compare(packed, o.packed);
+		}
+		return getItems().compareTo(o.getItems());
 	}
 
 	@Override
@@ -401,11 +548,17 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
 
 	@Override
 	public boolean equals(Object o) {
-		return (o instanceof ComparableVersion) && canonical.equals(((ComparableVersion) o).canonical);
+		if (!(o instanceof ComparableVersion other)) {
+			return false;
+		}
+		if (packed != NOT_PACKED && other.packed != NOT_PACKED) {
+			return packed == other.packed;
+		}
+		return getCanonical().equals(other.getCanonical());
 	}
 
 	@Override
 	public int hashCode() {
-		return canonical.hashCode();
+		return getCanonical().hashCode();
 	}
 }
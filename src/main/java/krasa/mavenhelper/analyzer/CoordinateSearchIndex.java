@@ -0,0 +1,126 @@
+package krasa.mavenhelper.analyzer;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Lower case trigram index over the coordinate keys of a {@link DependencyGraph}.
+ * <p>
+ * A term of three or more characters is looked up by intersecting the posting lists of its trigrams, so only
+ * candidate coordinates are verified by a substring check; shorter terms fall back to checking every coordinate.
+ */
+final class CoordinateSearchIndex {
+	private static final int[] NO_COORDINATES = new int[0];
+
+	private final String[] lowerCaseKeys;
+	private final Long2ObjectOpenHashMap<int[]> postings;
+
+	private CoordinateSearchIndex(String[] lowerCaseKeys, Long2ObjectOpenHashMap<int[]> postings) {
+		this.lowerCaseKeys = lowerCaseKeys;
+		this.postings = postings;
+	}
+
+	@NotNull
+	static CoordinateSearchIndex build(@NotNull DependencyGraph graph) {
+		int coordinateCount = graph.getCoordinateCount();
+		String[] lowerCaseKeys = new String[coordinateCount];
+		Long2ObjectOpenHashMap<IntArrayList> lists = new Long2ObjectOpenHashMap<>();
+		LongOpenHashSet seen = new LongOpenHashSet();
+		for (int coordinate = 0; coordinate < coordinateCount; coordinate++) {
+			String key = graph.getCoordinateKey(coordinate).toLowerCase(Locale.ROOT);
+			lowerCaseKeys[coordinate] = key;
+			seen.clear();
+			for (int i = 0; i + 3 <= key.length(); i++) {
+				long trigram = trigram(key, i);
+				if (seen.add(trigram)) {
+					// coordinates are visited in order, so every posting list is sorted
+					lists.computeIfAbsent(trigram, t -> new IntArrayList()).add(coordinate);
+				}
+			}
+		}
+
+		Long2ObjectOpenHashMap<int[]> postings = new Long2ObjectOpenHashMap<>(lists.size());
+		for (Long2ObjectOpenHashMap.Entry<IntArrayList> entry : lists.long2ObjectEntrySet()) {
+			postings.put(entry.getLongKey(), entry.getValue().toIntArray());
+		}
+		return new CoordinateSearchIndex(lowerCaseKeys, postings);
+	}
+
+	/**
+	 * @param within candidates already known to be a superset of the result, e.g. matches of a shorter query
+	 * @return coordinates whose key matches all terms of the query, scope filters are not applied
+	 */
+	@NotNull
+	BitSet findCoordinates(@NotNull SearchQuery query, @Nullable BitSet within) {
+		BitSet result = new BitSet(lowerCaseKeys.length);
+		if (within != null) {
+			for (int coordinate = within.nextSetBit(0); coordinate >= 0; coordinate = within.nextSetBit(coordinate + 1)) {
+				if (query.matchesKey(lowerCaseKeys[coordinate])) {
+					result.set(coordinate);
+				}
+			}
+			return result;
+		}
+		int[] candidates = null;
+		for (String term : query.getTerms()) {
+			if (term.length() < 3) {
+				continue;
+			}
+			for (int i = 0; i + 3 <= term.length(); i++) {
+				int[] posting = postings.get(trigram(term, i));
+				if (posting == null) {
+					return result;
+				}
+				candidates = candidates == null ? posting : intersect(candidates, posting);
+				if (candidates.length == 0) {
+					return result;
+				}
+			}
+		}
+
+		if (candidates == null) {
+			for (int coordinate = 0; coordinate < lowerCaseKeys.length; coordinate++) {
+				if (query.matchesKey(lowerCaseKeys[coordinate])) {
+					result.set(coordinate);
+				}
+			}
+		} else {
+			for (int coordinate : candidates) {
+				if (query.matchesKey(lowerCaseKeys[coordinate])) {
+					result.set(coordinate);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static int[] intersect(int[] a, int[] b) {
+		int[] result = new int[Math.min(a.length, b.length)];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[size++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return size == 0 ? NO_COORDINATES : Arrays.copyOf(result, size);
+	}
+
+	private static long trigram(@NotNull String s, int i) {
+		return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+	}
+}
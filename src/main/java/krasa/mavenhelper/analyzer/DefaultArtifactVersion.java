@@ -93,7 +93,7 @@ public class DefaultArtifactVersion {
 	}
 
 	public final void parseVersion(String version) {
-		comparable = new ComparableVersion(version);
+		comparable = ComparableVersion.parse(version);
 
 		int index = version.indexOf("-");
 
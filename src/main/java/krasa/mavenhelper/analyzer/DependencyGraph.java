@@ -0,0 +1,402 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compact index of a resolved dependency tree.
+ * <p>
+ * Every {@link MavenArtifactNode} occurrence gets an int id (in pre-order), every distinct {@code groupId : artifactId}
+ * coordinate is interned once and gets an int id in key order. Parent/child edges and the occurrences of each
+ * coordinate are kept in primitive arrays, subtrees of test scoped dependencies are marked in a bit mask, so the
+ * "without tests" view is a filter over the same graph instead of a second copy.
+ */
+public final class DependencyGraph {
+	private static final Logger LOG = Logger.getInstance(DependencyGraph.class);
+
+	public static final int NONE = -1;
+
+	private final MavenArtifactNode[] nodes;
+	private final int[] parents;
+	private final int[] childStart;
+	private final int[] children;
+	private final int[] roots;
+	private final int[] coordinateOfNode;
+	private final String[] coordinateKeys;
+	private final int[] occurrenceStart;
+	private final int[] occurrences;
+	private final BitSet testNodes;
+
+	private DependencyGraph(MavenArtifactNode[] nodes,
+							int[] parents,
+							int[] childStart,
+							int[] children,
+							int[] roots,
+							int[] coordinateOfNode,
+							String[] coordinateKeys,
+							int[] occurrenceStart,
+							int[] occurrences,
+							BitSet testNodes) {
+		this.nodes = nodes;
+		this.parents = parents;
+		this.childStart = childStart;
+		this.children = children;
+		this.roots = roots;
+		this.coordinateOfNode = coordinateOfNode;
+		this.coordinateKeys = coordinateKeys;
+		this.occurrenceStart = occurrenceStart;
+		this.occurrences = occurrences;
+		this.testNodes = testNodes;
+	}
+
+	@NotNull
+	public static DependencyGraph build(@NotNull List<MavenArtifactNode> dependencyTree) {
+		return build(dependencyTree, UnaryOperator.identity());
+	}
+
+	/**
+	 * @param interner applied to every new coordinate key
+	 */
+	@NotNull
+	public static DependencyGraph build(@NotNull List<MavenArtifactNode> dependencyTree, @NotNull UnaryOperator<String> interner) {
+		return new Builder(interner).build(dependencyTree);
+	}
+
+	@NotNull
+	public static String getArtifactKey(@NotNull MavenArtifact artifact) {
+		return artifact.getGroupId() + " : " + artifact.getArtifactId();
+	}
+
+	public int getNodeCount() {
+		return nodes.length;
+	}
+
+	@NotNull
+	public MavenArtifactNode getNode(int node) {
+		return nodes[node];
+	}
+
+	/**
+	 * @return parent node id or {@link #NONE} for top level dependencies
+	 */
+	public int getParent(int node) {
+		return parents[node];
+	}
+
+	public int getChildCount(int node) {
+		return childStart[node + 1] - childStart[node];
+	}
+
+	public int getChild(int node, int index) {
+		return children[childStart[node] + index];
+	}
+
+	public int getRootCount() {
+		return roots.length;
+	}
+
+	public int getRoot(int index) {
+		return roots[index];
+	}
+
+	/**
+	 * @return true if the node is a test scoped top level dependency or one of its transitive dependencies
+	 */
+	public boolean isTest(int node) {
+		return testNodes.get(node);
+	}
+
+	public int getCoordinateCount() {
+		return coordinateKeys.length;
+	}
+
+	public int getCoordinate(int node) {
+		return coordinateOfNode[node];
+	}
+
+	@NotNull
+	public String getCoordinateKey(int coordinate) {
+		return coordinateKeys[coordinate];
+	}
+
+	public int findCoordinate(@NotNull MavenArtifact artifact) {
+		int i = Arrays.binarySearch(coordinateKeys, getArtifactKey(artifact));
+		return i >= 0 ? i : NONE;
+	}
+
+	public int getOccurrenceCount(int coordinate) {
+		return occurrenceStart[coordinate + 1] - occurrenceStart[coordinate];
+	}
+
+	public int getOccurrence(int coordinate, int index) {
+		return occurrences[occurrenceStart[coordinate] + index];
+	}
+
+	/**
+	 * @return all nodes of the coordinate in pre-order, optionally skipping nodes under test scoped dependencies
+	 */
+	@NotNull
+	public List<MavenArtifactNode> getOccurrences(int coordinate, boolean withoutTests) {
+		if (coordinate == NONE) {
+			return Collections.emptyList();
+		}
+		int from = occurrenceStart[coordinate];
+		int to = occurrenceStart[coordinate + 1];
+		if (!withoutTests || !hasTestOccurrence(from, to)) {
+			return new OccurrenceList(from, to);
+		}
+		List<MavenArtifactNode> result = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			int node = occurrences[i];
+			if (!testNodes.get(node)) {
+				result.add(nodes[node]);
+			}
+		}
+		return result;
+	}
+
+	private boolean hasTestOccurrence(int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (testNodes.get(occurrences[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private final class OccurrenceList extends AbstractList<MavenArtifactNode> implements RandomAccess {
+		private final int from;
+		private final int to;
+
+		private OccurrenceList(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public MavenArtifactNode get(int index) {
+			if (index < 0 || index >= to - from) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+			}
+			return nodes[occurrences[from + index]];
+		}
+
+		@Override
+		public int size() {
+			return to - from;
+		}
+	}
+
+	private static final class Builder {
+		private final UnaryOperator<String> interner;
+
+		private Builder(@NotNull UnaryOperator<String> interner) {
+			this.interner = interner;
+		}
+
+		/**
+		 * Walks the subtrees of top level dependencies concurrently, then concatenates them in tree order.
+		 */
+		@NotNull
+		DependencyGraph build(@NotNull List<MavenArtifactNode> dependencyTree) {
+			List<Fragment> fragments = new ArrayList<>(dependencyTree.size());
+			for (MavenArtifactNode root : dependencyTree) {
+				fragments.add(new Fragment(root));
+			}
+			if (fragments.size() > 1) {
+				JobLauncher.getInstance().invokeConcurrentlyUnderProgress(fragments, ProgressManager.getInstance().getProgressIndicator(), fragment -> {
+					fragment.walk(interner);
+					return true;
+				});
+			} else {
+				for (Fragment fragment : fragments) {
+					fragment.walk(interner);
+				}
+			}
+			return merge(fragments);
+		}
+
+		private DependencyGraph merge(List<Fragment> fragments) {
+			int nodeCount = 0;
+			int skipped = 0;
+			for (Fragment fragment : fragments) {
+				nodeCount += fragment.nodes.size();
+				skipped += fragment.skipped;
+			}
+			if (skipped > 0) {
+				LOG.warn("Dependency tree contains " + skipped + " already visited nodes, indexed only once");
+			}
+
+			MavenArtifactNode[] nodes = new MavenArtifactNode[nodeCount];
+			int[] parents = new int[nodeCount];
+			int[] coordinates = new int[nodeCount];
+			int[] roots = new int[fragments.size()];
+			BitSet testNodes = new BitSet(nodeCount);
+			Object2IntOpenHashMap<String> coordinateByKey = new Object2IntOpenHashMap<>();
+			coordinateByKey.defaultReturnValue(NONE);
+			List<String> keys = new ArrayList<>();
+
+			int offset = 0;
+			for (int f = 0; f < fragments.size(); f++) {
+				Fragment fragment = fragments.get(f);
+				int size = fragment.nodes.size();
+				roots[f] = offset;
+				if (fragment.test) {
+					testNodes.set(offset, offset + size);
+				}
+				for (int i = 0; i < size; i++) {
+					int id = offset + i;
+					nodes[id] = fragment.nodes.get(i);
+					int parent = fragment.parents.getInt(i);
+					parents[id] = parent == NONE ? NONE : parent + offset;
+					String key = fragment.keys.get(i);
+					int coordinate = coordinateByKey.getInt(key);
+					if (coordinate == NONE) {
+						coordinate = keys.size();
+						keys.add(key);
+						coordinateByKey.put(key, coordinate);
+					}
+					coordinates[id] = coordinate;
+				}
+				offset += size;
+			}
+			return createGraph(nodes, parents, coordinates, roots, testNodes, keys);
+		}
+
+		private static DependencyGraph createGraph(MavenArtifactNode[] nodes,
+												   int[] parentArray,
+												   int[] coordinates,
+												   int[] roots,
+												   BitSet testNodes,
+												   List<String> keys) {
+			int nodeCount = nodes.length;
+			int coordinateCount = keys.size();
+
+			// coordinate ids are assigned in key order, so that lists built from the graph are sorted like the old TreeMap
+			Integer[] order = new Integer[coordinateCount];
+			for (int i = 0; i < coordinateCount; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparing(keys::get));
+			int[] sortedIdOf = new int[coordinateCount];
+			String[] coordinateKeys = new String[coordinateCount];
+			for (int sorted = 0; sorted < coordinateCount; sorted++) {
+				sortedIdOf[order[sorted]] = sorted;
+				coordinateKeys[sorted] = keys.get(order[sorted]);
+			}
+
+			int[] coordinateOfNode = new int[nodeCount];
+			int[] childStart = new int[nodeCount + 1];
+			int[] occurrenceStart = new int[coordinateCount + 1];
+			for (int node = 0; node < nodeCount; node++) {
+				int coordinate = sortedIdOf[coordinates[node]];
+				coordinateOfNode[node] = coordinate;
+				occurrenceStart[coordinate + 1]++;
+				if (parentArray[node] != NONE) {
+					childStart[parentArray[node] + 1]++;
+				}
+			}
+			for (int i = 0; i < nodeCount; i++) {
+				childStart[i + 1] += childStart[i];
+			}
+			for (int i = 0; i < coordinateCount; i++) {
+				occurrenceStart[i + 1] += occurrenceStart[i];
+			}
+
+			// ids are in pre-order, so filling in id order keeps both children and occurrences in tree order
+			int[] children = new int[Math.max(0, nodeCount - roots.length)];
+			int[] occurrences = new int[nodeCount];
+			int[] childFill = Arrays.copyOf(childStart, nodeCount);
+			int[] occurrenceFill = Arrays.copyOf(occurrenceStart, coordinateCount);
+			for (int node = 0; node < nodeCount; node++) {
+				int parent = parentArray[node];
+				if (parent != NONE) {
+					children[childFill[parent]++] = node;
+				}
+				occurrences[occurrenceFill[coordinateOfNode[node]]++] = node;
+			}
+
+			return new DependencyGraph(
+				nodes,
+				parentArray,
+				childStart,
+				children,
+				roots,
+				coordinateOfNode,
+				coordinateKeys,
+				occurrenceStart,
+				occurrences,
+				testNodes
+			);
+		}
+	}
+
+	/**
+	 * Subtree of one top level dependency, with node ids local to the fragment.
+	 */
+	private static final class Fragment {
+		private final MavenArtifactNode root;
+		private final boolean test;
+		private final List<MavenArtifactNode> nodes = new ArrayList<>();
+		private final IntArrayList parents = new IntArrayList();
+		private final List<String> keys = new ArrayList<>();
+		private int skipped;
+
+		private Fragment(@NotNull MavenArtifactNode root) {
+			this.root = root;
+			this.test = "test".equals(root.getArtifact().getScope());
+		}
+
+		/**
+		 * Walks the subtree with an explicit stack, so that there is no depth limit. A node instance reachable through
+		 * more than one path of the subtree (or through a cycle) is indexed only once, under the first path that reached it.
+		 */
+		private void walk(@NotNull UnaryOperator<String> interner) {
+			Map<String, Map<String, String>> keysByGroupId = new HashMap<>();
+			List<MavenArtifactNode> stack = new ArrayList<>();
+			IntArrayList stackParents = new IntArrayList();
+			Set<MavenArtifactNode> visited = new ReferenceOpenHashSet<>();
+
+			stack.add(root);
+			stackParents.add(NONE);
+			while (!stack.isEmpty()) {
+				int last = stack.size() - 1;
+				MavenArtifactNode mavenArtifactNode = stack.remove(last);
+				int parent = stackParents.removeInt(last);
+				if (!visited.add(mavenArtifactNode)) {
+					skipped++;
+					continue;
+				}
+				int id = nodes.size();
+				if ((id & 0xFF) == 0) {
+					ProgressManager.checkCanceled();
+				}
+
+				MavenArtifact artifact = mavenArtifactNode.getArtifact();
+				nodes.add(mavenArtifactNode);
+				parents.add(parent);
+				keys.add(keysByGroupId.computeIfAbsent(artifact.getGroupId(), k -> new HashMap<>())
+					.computeIfAbsent(artifact.getArtifactId(), k -> interner.apply(getArtifactKey(artifact))));
+
+				// pushed in reverse, so that nodes are popped - and get their ids - in pre-order
+				List<MavenArtifactNode> dependencies = mavenArtifactNode.getDependencies();
+				if (dependencies != null) {
+					for (int i = dependencies.size() - 1; i >= 0; i--) {
+						stack.add(dependencies.get(i));
+						stackParents.add(id);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,480 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-only Dependency Analyzer model of one Maven module, shared by all editors of that module,
+ * see {@link krasa.mavenhelper.DependencyModelService}.
+ * <p>
+ * Size related data is computed lazily on first use and then cached for all editors.
+ */
+public final class DependencyModel {
+	private final VirtualFile file;
+	private final List<MavenArtifactNode> dependencyTree;
+	private final DependencyGraph graph;
+	private final ReverseDependencyIndex reverseIndex;
+	private final List<MyListNode> allArtifactsListNodes;
+	private final List<MyListNode> allArtifactsListNodesWithoutTests;
+	private final List<MyListNode> conflictArtifactsListNodes;
+	private final List<MyListNode> allArtifactsListNodesByArtifactId;
+	private final List<MyListNode> allArtifactsListNodesWithoutTestsByArtifactId;
+	private final List<MyListNode> conflictArtifactsListNodesByArtifactId;
+	/**
+	 * guarded by this
+	 */
+	private final Map<ListKind, Map<SizeSortMode, List<MyListNode>>> sizeSortedListNodes = new EnumMap<>(ListKind.class);
+	private volatile DependencySizeIndex dependencySizeIndex;
+	private volatile JarMetricsIndex jarMetricsIndex;
+	private volatile JarMetricsIndex jarMetricsIndexWithoutTests;
+	private volatile RetainedSizeIndex retainedSizeIndex;
+	private volatile CoordinateSearchIndex searchIndex;
+	private volatile RetainedSizeIndex retainedSizeIndexWithoutTests;
+	@Nullable
+	private volatile DependencySizeIndex previousSizeIndex;
+
+	private DependencyModel(@NotNull VirtualFile file,
+							@NotNull List<MavenArtifactNode> dependencyTree,
+							@NotNull DependencyGraph graph,
+							@NotNull ReverseDependencyIndex reverseIndex,
+							@NotNull List<MyListNode> allArtifactsListNodes,
+							@NotNull List<MyListNode> allArtifactsListNodesWithoutTests,
+							@NotNull List<MyListNode> conflictArtifactsListNodes,
+							@NotNull List<MyListNode> allArtifactsListNodesByArtifactId,
+							@NotNull List<MyListNode> allArtifactsListNodesWithoutTestsByArtifactId,
+							@NotNull List<MyListNode> conflictArtifactsListNodesByArtifactId,
+							@Nullable DependencySizeIndex previousSizeIndex) {
+		this.file = file;
+		this.dependencyTree = dependencyTree;
+		this.graph = graph;
+		this.reverseIndex = reverseIndex;
+		this.allArtifactsListNodes = allArtifactsListNodes;
+		this.allArtifactsListNodesWithoutTests = allArtifactsListNodesWithoutTests;
+		this.conflictArtifactsListNodes = conflictArtifactsListNodes;
+		this.allArtifactsListNodesByArtifactId = allArtifactsListNodesByArtifactId;
+		this.allArtifactsListNodesWithoutTestsByArtifactId = allArtifactsListNodesWithoutTestsByArtifactId;
+		this.conflictArtifactsListNodesByArtifactId = conflictArtifactsListNodesByArtifactId;
+		this.previousSizeIndex = previousSizeIndex;
+	}
+
+	/**
+	 * @param interner used for coordinate keys, so that modules of one project share the strings
+	 */
+	@NotNull
+	public static DependencyModel build(@NotNull VirtualFile file, @NotNull List<MavenArtifactNode> dependencyTree, @NotNull UnaryOperator<String> interner) {
+		DependencyGraph graph = DependencyGraph.build(dependencyTree, interner);
+		ProgressManager.checkCanceled();
+
+		Ref<List<MyListNode>> all = new Ref<>();
+		Ref<List<MyListNode>> allWithoutTests = new Ref<>();
+		Ref<List<MyListNode>> conflicts = new Ref<>();
+		Ref<ReverseDependencyIndex> reverseIndex = new Ref<>();
+		invokeConcurrently(
+			() -> {
+				all.set(createListNodes(graph, false));
+				conflicts.set(createVersionConflictListNodes(all.get()));
+			},
+			() -> allWithoutTests.set(createListNodes(graph, true)),
+			() -> reverseIndex.set(ReverseDependencyIndex.build(graph))
+		);
+
+		Ref<List<MyListNode>> allByArtifactId = new Ref<>();
+		Ref<List<MyListNode>> allWithoutTestsByArtifactId = new Ref<>();
+		Ref<List<MyListNode>> conflictsByArtifactId = new Ref<>();
+		invokeConcurrently(
+			() -> allByArtifactId.set(sortedCopy(all.get(), MyDefaultListModel.ARTIFACT_ID)),
+			() -> allWithoutTestsByArtifactId.set(sortedCopy(allWithoutTests.get(), MyDefaultListModel.ARTIFACT_ID)),
+			() -> conflictsByArtifactId.set(sortedCopy(conflicts.get(), MyDefaultListModel.ARTIFACT_ID))
+		);
+
+		return new DependencyModel(file, dependencyTree, graph, reverseIndex.get(),
+			all.get(),
+			allWithoutTests.get(),
+			conflicts.get(),
+			allByArtifactId.get(),
+			allWithoutTestsByArtifactId.get(),
+			conflictsByArtifactId.get(),
+			null);
+	}
+
+	/**
+	 * Builds the model of a re-resolved module by diffing it against the previous model by coordinate.
+	 * <p>
+	 * The graph itself is always rebuilt, since Maven creates new {@link MavenArtifactNode}s on every resolve. Coordinates
+	 * whose occurrences did not change take over their derived state, the artifactId sorted lists are patched instead
+	 * of sorted from scratch and artifact sizes known to the previous model are reused without touching the disk.
+	 */
+	@NotNull
+	public static DependencyModel update(@NotNull DependencyModel previous, @NotNull List<MavenArtifactNode> dependencyTree, @NotNull UnaryOperator<String> interner) {
+		DependencyGraph graph = DependencyGraph.build(dependencyTree, interner);
+		ProgressManager.checkCanceled();
+
+		Ref<List<MyListNode>> all = new Ref<>();
+		Ref<List<MyListNode>> allWithoutTests = new Ref<>();
+		Ref<List<MyListNode>> conflicts = new Ref<>();
+		Ref<ReverseDependencyIndex> reverseIndex = new Ref<>();
+		invokeConcurrently(
+			() -> {
+				all.set(patchListNodes(previous.allArtifactsListNodes, graph, false));
+				conflicts.set(createVersionConflictListNodes(all.get()));
+			},
+			() -> allWithoutTests.set(patchListNodes(previous.allArtifactsListNodesWithoutTests, graph, true)),
+			() -> reverseIndex.set(ReverseDependencyIndex.build(graph))
+		);
+
+		Ref<List<MyListNode>> allByArtifactId = new Ref<>();
+		Ref<List<MyListNode>> allWithoutTestsByArtifactId = new Ref<>();
+		Ref<List<MyListNode>> conflictsByArtifactId = new Ref<>();
+		invokeConcurrently(
+			() -> allByArtifactId.set(patchSorted(previous.allArtifactsListNodesByArtifactId, all.get(), MyDefaultListModel.ARTIFACT_ID)),
+			() -> allWithoutTestsByArtifactId.set(patchSorted(previous.allArtifactsListNodesWithoutTestsByArtifactId, allWithoutTests.get(), MyDefaultListModel.ARTIFACT_ID)),
+			() -> conflictsByArtifactId.set(patchSorted(previous.conflictArtifactsListNodesByArtifactId, conflicts.get(), MyDefaultListModel.ARTIFACT_ID))
+		);
+
+		DependencySizeIndex previousSizeIndex = previous.dependencySizeIndex;
+		return new DependencyModel(previous.file, dependencyTree, graph, reverseIndex.get(),
+			all.get(),
+			allWithoutTests.get(),
+			conflicts.get(),
+			allByArtifactId.get(),
+			allWithoutTestsByArtifactId.get(),
+			conflictsByArtifactId.get(),
+			previousSizeIndex != null ? previousSizeIndex : previous.previousSizeIndex);
+	}
+
+	@NotNull
+	public VirtualFile getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the {@link org.jetbrains.idea.maven.project.MavenProject#getDependencyTree()} this model was built from
+	 */
+	@NotNull
+	public List<MavenArtifactNode> getDependencyTree() {
+		return dependencyTree;
+	}
+
+	@NotNull
+	public DependencyGraph getGraph() {
+		return graph;
+	}
+
+	@NotNull
+	ReverseDependencyIndex getReverseIndex() {
+		return reverseIndex;
+	}
+
+	@NotNull
+	List<MyListNode> getListNodes(@NotNull ListKind kind, boolean byArtifactId) {
+		return switch (kind) {
+			case ALL -> byArtifactId ? allArtifactsListNodesByArtifactId : allArtifactsListNodes;
+			case ALL_WITHOUT_TESTS -> byArtifactId ? allArtifactsListNodesWithoutTestsByArtifactId : allArtifactsListNodesWithoutTests;
+			case CONFLICTS -> byArtifactId ? conflictArtifactsListNodesByArtifactId : conflictArtifactsListNodes;
+		};
+	}
+
+	boolean isNoConflicts() {
+		return conflictArtifactsListNodes.isEmpty();
+	}
+
+	@NotNull
+	CoordinateSearchIndex getSearchIndex() {
+		CoordinateSearchIndex cached = searchIndex;
+		if (cached == null) {
+			cached = CoordinateSearchIndex.build(graph);
+			searchIndex = cached;
+		}
+		return cached;
+	}
+
+	@Nullable
+	DependencySizeIndex getOrComputeDependencySizeIndex(@NotNull BooleanSupplier cancelled) {
+		DependencySizeIndex cached = dependencySizeIndex;
+		if (cached != null) {
+			return cached;
+		}
+
+		DependencySizeIndex computed = DependencySizeIndex.compute(graph, previousSizeIndex, cancelled);
+		if (computed == null) {
+			return null;
+		}
+		dependencySizeIndex = computed;
+		previousSizeIndex = null;
+		return computed;
+	}
+
+	/**
+	 * @param withoutTests duplicate classes are counted on the classpath without test scoped artifacts
+	 */
+	@Nullable
+	JarMetricsIndex getOrComputeJarMetricsIndex(boolean withoutTests, @NotNull BooleanSupplier cancelled) {
+		JarMetricsIndex cached = withoutTests ? jarMetricsIndexWithoutTests : jarMetricsIndex;
+		if (cached != null) {
+			return cached;
+		}
+
+		JarMetricsIndex computed = JarMetricsIndex.compute(graph, withoutTests ? allArtifactsListNodesWithoutTests : allArtifactsListNodes, cancelled);
+		if (computed == null) {
+			return null;
+		}
+		if (withoutTests) {
+			jarMetricsIndexWithoutTests = computed;
+		} else {
+			jarMetricsIndex = computed;
+		}
+		return computed;
+	}
+
+	@Nullable
+	RetainedSizeIndex getOrComputeRetainedSizeIndex(boolean withoutTests, @NotNull DependencySizeIndex sizeIndex, @NotNull BooleanSupplier cancelled) {
+		RetainedSizeIndex cached = withoutTests ? retainedSizeIndexWithoutTests : retainedSizeIndex;
+		if (cached != null) {
+			return cached;
+		}
+
+		RetainedSizeIndex computed = RetainedSizeIndex.compute(graph, sizeIndex, withoutTests, cancelled);
+		if (computed == null) {
+			return null;
+		}
+		if (withoutTests) {
+			retainedSizeIndexWithoutTests = computed;
+		} else {
+			retainedSizeIndex = computed;
+		}
+		return computed;
+	}
+
+	/**
+	 * @param jarMetricsIndex    required for modes with {@link SizeSortMode#isJarMetrics()}, computed for the same
+	 *                           test scope filter as {@code kind}
+	 * @param retainedSizeIndex  required for modes with {@link SizeSortMode#isRetainedSize()}, computed for the same
+	 *                           test scope filter as {@code kind}
+	 */
+	@Nullable
+	List<MyListNode> getOrComputeSizeSortedListNodes(@NotNull ListKind kind,
+													 @NotNull SizeSortMode mode,
+													 @NotNull DependencySizeIndex sizeIndex,
+													 @Nullable JarMetricsIndex jarMetricsIndex,
+													 @Nullable RetainedSizeIndex retainedSizeIndex,
+													 @NotNull BooleanSupplier cancelled) {
+		synchronized (this) {
+			List<MyListNode> cached = getSizeSortedListCache(kind, mode);
+			if (cached != null) {
+				return cached;
+			}
+
+			List<MyListNode> base = getListNodes(kind, false);
+			if (!ensureListNodeSizes(base, sizeIndex, jarMetricsIndex, retainedSizeIndex, cancelled)) {
+				return null;
+			}
+
+			List<MyListNode> sorted = sortedCopy(base, mode.getComparator());
+			if (cancelled.getAsBoolean()) {
+				return null;
+			}
+			sizeSortedListNodes.computeIfAbsent(kind, k -> new EnumMap<>(SizeSortMode.class)).put(mode, sorted);
+			return sorted;
+		}
+	}
+
+	private static boolean ensureListNodeSizes(@NotNull List<MyListNode> nodes,
+											   @NotNull DependencySizeIndex sizeIndex,
+											   @Nullable JarMetricsIndex jarMetricsIndex,
+											   @Nullable RetainedSizeIndex retainedSizeIndex,
+											   @NotNull BooleanSupplier cancelled) {
+		for (MyListNode node : nodes) {
+			if (cancelled.getAsBoolean()) {
+				return false;
+			}
+			if (!node.hasComputedTotalSize()) {
+				sizeIndex.apply(node);
+			}
+			if (jarMetricsIndex != null && !node.hasJarMetrics()) {
+				jarMetricsIndex.apply(node);
+			}
+			if (retainedSizeIndex != null && !node.hasRetainedSize()) {
+				retainedSizeIndex.apply(node);
+			}
+		}
+		return !cancelled.getAsBoolean();
+	}
+
+	@Nullable
+	private List<MyListNode> getSizeSortedListCache(@NotNull ListKind kind, @NotNull SizeSortMode mode) {
+		Map<SizeSortMode, List<MyListNode>> byMode = sizeSortedListNodes.get(kind);
+		return byMode == null ? null : byMode.get(mode);
+	}
+
+	private static List<MyListNode> createListNodes(@NotNull DependencyGraph graph, boolean withoutTests) {
+		if (graph.getCoordinateCount() == 0) {
+			return Collections.emptyList();
+		}
+		List<MyListNode> result = new ArrayList<>(graph.getCoordinateCount());
+		for (int coordinate = 0; coordinate < graph.getCoordinateCount(); coordinate++) {
+			if ((coordinate & 0xFF) == 0) {
+				ProgressManager.checkCanceled();
+			}
+			List<MavenArtifactNode> occurrences = graph.getOccurrences(coordinate, withoutTests);
+			if (!occurrences.isEmpty()) {
+				result.add(new MyListNode(graph.getCoordinateKey(coordinate), coordinate, occurrences));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param previous list nodes of the previous model, in coordinate key order
+	 */
+	private static List<MyListNode> patchListNodes(@NotNull List<MyListNode> previous, @NotNull DependencyGraph graph, boolean withoutTests) {
+		if (graph.getCoordinateCount() == 0) {
+			return Collections.emptyList();
+		}
+		List<MyListNode> result = new ArrayList<>(graph.getCoordinateCount());
+		int previousIndex = 0;
+		for (int coordinate = 0; coordinate < graph.getCoordinateCount(); coordinate++) {
+			if ((coordinate & 0xFF) == 0) {
+				ProgressManager.checkCanceled();
+			}
+			List<MavenArtifactNode> occurrences = graph.getOccurrences(coordinate, withoutTests);
+			if (occurrences.isEmpty()) {
+				continue;
+			}
+			String key = graph.getCoordinateKey(coordinate);
+			// both lists are sorted by key, so removed coordinates are skipped by a simple merge
+			while (previousIndex < previous.size() && previous.get(previousIndex).artifactKey.compareTo(key) < 0) {
+				previousIndex++;
+			}
+			MyListNode previousNode = null;
+			if (previousIndex < previous.size() && previous.get(previousIndex).artifactKey.equals(key)) {
+				previousNode = previous.get(previousIndex);
+			}
+			if (previousNode != null && isSameOccurrences(previousNode.getArtifacts(), occurrences)) {
+				result.add(new MyListNode(previousNode, coordinate, occurrences));
+			} else {
+				result.add(new MyListNode(key, coordinate, occurrences));
+			}
+		}
+		return result;
+	}
+
+	static boolean isSameOccurrences(@NotNull List<MavenArtifactNode> previous, @NotNull List<MavenArtifactNode> current) {
+		if (previous.size() != current.size()) {
+			return false;
+		}
+		for (int i = 0; i < previous.size(); i++) {
+			MavenArtifactNode a = previous.get(i);
+			MavenArtifactNode b = current.get(i);
+			if (a.getState() != b.getState()
+				|| !Objects.equals(a.getArtifact().getVersion(), b.getArtifact().getVersion())
+				|| !Objects.equals(a.getArtifact().getScope(), b.getArtifact().getScope())
+				|| !Objects.equals(getVersion(a.getRelatedArtifact()), getVersion(b.getRelatedArtifact()))
+				|| !Objects.equals(getParentKey(a), getParentKey(b))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Nullable
+	private static String getVersion(@Nullable MavenArtifact artifact) {
+		return artifact == null ? null : artifact.getVersion();
+	}
+
+	@Nullable
+	private static String getParentKey(@NotNull MavenArtifactNode node) {
+		MavenArtifactNode parent = node.getParent();
+		return parent == null ? null : DependencyGraph.getArtifactKey(parent.getArtifact());
+	}
+
+	/**
+	 * Reorders {@code current} like {@code previousSorted} - nodes are equal by key, so unchanged coordinates keep their
+	 * position, new ones are appended and merged by a sort that is close to linear on such input.
+	 */
+	private static List<MyListNode> patchSorted(@NotNull List<MyListNode> previousSorted, @NotNull List<MyListNode> current, @NotNull Comparator<MyListNode> comparator) {
+		if (current.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Map<String, MyListNode> remaining = new HashMap<>(current.size() * 2);
+		for (MyListNode node : current) {
+			remaining.put(node.artifactKey, node);
+		}
+		List<MyListNode> result = new ArrayList<>(current.size());
+		for (MyListNode node : previousSorted) {
+			MyListNode replacement = remaining.remove(node.artifactKey);
+			if (replacement != null) {
+				result.add(replacement);
+			}
+		}
+		if (!remaining.isEmpty()) {
+			for (MyListNode node : current) {
+				if (remaining.containsKey(node.artifactKey)) {
+					result.add(node);
+				}
+			}
+			result.sort(comparator);
+		}
+		return result;
+	}
+
+	/**
+	 * Runs independent build steps on the shared pool, under the progress indicator of the calling task.
+	 */
+	private static void invokeConcurrently(@NotNull Runnable... steps) {
+		ProgressManager.checkCanceled();
+		JobLauncher.getInstance().invokeConcurrentlyUnderProgress(Arrays.asList(steps), ProgressManager.getInstance().getProgressIndicator(), step -> {
+			step.run();
+			return true;
+		});
+	}
+
+	private static <T> @NotNull List<T> sortedCopy(@NotNull List<T> source, @NotNull Comparator<? super T> comparator) {
+		if (source.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<T> copy = new ArrayList<>(source);
+		copy.sort(comparator);
+		return copy;
+	}
+
+	private static List<MyListNode> createVersionConflictListNodes(@NotNull List<MyListNode> listNodes) {
+		if (listNodes.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<MyListNode> result = new ArrayList<>();
+		for (MyListNode node : listNodes) {
+			List<MavenArtifactNode> nodes = node.getArtifacts();
+			if (nodes != null && nodes.size() > 1 && hasConflicts(nodes)) {
+				result.add(node);
+			}
+		}
+		return result;
+	}
+
+	private static boolean hasConflicts(List<MavenArtifactNode> nodes) {
+		String version = null;
+		for (MavenArtifactNode node : nodes) {
+			if (version != null && !version.equals(node.getArtifact().getVersion())) {
+				return true;
+			}
+			version = node.getArtifact().getVersion();
+		}
+		return false;
+	}
+
+	enum ListKind {
+		ALL,
+		ALL_WITHOUT_TESTS,
+		CONFLICTS,
+	}
+}
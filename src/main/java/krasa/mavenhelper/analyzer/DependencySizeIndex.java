@@ -0,0 +1,114 @@
+package krasa.mavenhelper.analyzer;
+
+import krasa.mavenhelper.AnalyzerTelemetryService;
+import krasa.mavenhelper.ArtifactSizeCacheService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+
+import java.io.File;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Shallow and deep (own + transitive) artifact sizes in KB for every node of a {@link DependencyGraph}.
+ */
+final class DependencySizeIndex {
+	private static final long UNKNOWN = -1;
+
+	private final DependencyGraph graph;
+	private final long[] sizeKbByNode;
+	private final long[] totalKbByNode;
+
+	private DependencySizeIndex(@NotNull DependencyGraph graph, long[] sizeKbByNode, long[] totalKbByNode) {
+		this.graph = graph;
+		this.sizeKbByNode = sizeKbByNode;
+		this.totalKbByNode = totalKbByNode;
+	}
+
+	/**
+	 * @param previous index of the previous resolve of the same module, shallow sizes of released artifacts with the
+	 *                 same file are taken from it instead of the disk; SNAPSHOTs may have been re-resolved to the same
+	 *                 path and are validated by {@link ArtifactSizeCacheService}
+	 */
+	@Nullable
+	static DependencySizeIndex compute(@NotNull DependencyGraph graph, @Nullable DependencySizeIndex previous, @NotNull BooleanSupplier cancelled) {
+		AnalyzerTelemetryService.Sample sample = AnalyzerTelemetryService.getInstance().start(AnalyzerTelemetryService.Operation.SIZE_INDEX);
+		int nodeCount = graph.getNodeCount();
+		long[] sizeKbByNode = new long[nodeCount];
+		long[] totalKbByNode = new long[nodeCount];
+
+		// node ids are in pre-order, walking them backwards visits children before their parents
+		for (int node = nodeCount - 1; node >= 0; node--) {
+			if (cancelled.getAsBoolean()) {
+				sample.cancel();
+				return null;
+			}
+			long sizeKb = previous != null ? previous.findSizeKb(graph.getNode(node)) : UNKNOWN;
+			if (sizeKb == UNKNOWN) {
+				sizeKb = computeSizeKb(graph.getNode(node));
+			}
+			sizeKbByNode[node] = sizeKb;
+
+			long totalKb = sizeKb;
+			for (int i = 0; i < graph.getChildCount(node); i++) {
+				totalKb += totalKbByNode[graph.getChild(node, i)];
+			}
+			totalKbByNode[node] = totalKb;
+		}
+
+		sample.finish(nodeCount);
+		return new DependencySizeIndex(graph, sizeKbByNode, totalKbByNode);
+	}
+
+	private static long computeSizeKb(@NotNull MavenArtifactNode node) {
+		return ArtifactSizeCacheService.getInstance().getSizeKb(node.getArtifact());
+	}
+
+	private long findSizeKb(@NotNull MavenArtifactNode artifactNode) {
+		MavenArtifact artifact = artifactNode.getArtifact();
+		if (artifact.getVersion() == null || artifact.getVersion().endsWith("SNAPSHOT")) {
+			return UNKNOWN;
+		}
+		File file = artifact.getFile();
+		int coordinate = graph.findCoordinate(artifact);
+		if (file == null || coordinate == DependencyGraph.NONE) {
+			return UNKNOWN;
+		}
+		for (int i = 0; i < graph.getOccurrenceCount(coordinate); i++) {
+			int node = graph.getOccurrence(coordinate, i);
+			if (file.equals(graph.getNode(node).getArtifact().getFile())) {
+				return sizeKbByNode[node];
+			}
+		}
+		return UNKNOWN;
+	}
+
+	void apply(@NotNull MyListNode node) {
+		MavenArtifactNode right = node.getRightArtifact();
+		int rightNode = right == null ? DependencyGraph.NONE : findNode(node.getCoordinate(), right);
+		if (rightNode == DependencyGraph.NONE) {
+			node.setSizes(0, 0);
+			return;
+		}
+		node.setSizes(sizeKbByNode[rightNode], totalKbByNode[rightNode]);
+	}
+
+	long getSizeKb(int node) {
+		return sizeKbByNode[node];
+	}
+
+	void apply(@NotNull MyTreeUserObject userObject, int node) {
+		userObject.setSizes(sizeKbByNode[node], totalKbByNode[node]);
+	}
+
+	private int findNode(int coordinate, @NotNull MavenArtifactNode artifactNode) {
+		for (int i = 0; i < graph.getOccurrenceCount(coordinate); i++) {
+			int node = graph.getOccurrence(coordinate, i);
+			if (graph.getNode(node) == artifactNode) {
+				return node;
+			}
+		}
+		return DependencyGraph.NONE;
+	}
+}
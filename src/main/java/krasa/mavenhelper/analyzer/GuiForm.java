@@ -16,12 +16,13 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.Alarm;
 import com.intellij.ui.*;
 import com.intellij.ui.components.JBList;
+import krasa.mavenhelper.AnalyzerTelemetryService;
+import krasa.mavenhelper.DependencyModelService;
 import krasa.mavenhelper.Donate;
 import krasa.mavenhelper.MavenHelperApplicationService;
 import krasa.mavenhelper.MyProjectService;
@@ -31,12 +32,9 @@ import krasa.mavenhelper.analyzer.action.ListPopupHandler;
 import krasa.mavenhelper.analyzer.action.RightTreePopupHandler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.idea.maven.model.MavenArtifact;
 import org.jetbrains.idea.maven.model.MavenArtifactNode;
 import org.jetbrains.idea.maven.project.MavenProject;
-import org.jetbrains.idea.maven.project.MavenProjectChanges;
 import org.jetbrains.idea.maven.project.MavenProjectsManager;
-import org.jetbrains.idea.maven.server.NativeMavenProjectHolder;
 
 import javax.swing.*;
 import javax.swing.event.*;
@@ -49,12 +47,11 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
-import java.io.File;
+import java.awt.event.MouseEvent;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.BooleanSupplier;
 
 /**
  * @author Vojtech Krasa
@@ -78,12 +75,13 @@ public class GuiForm implements Disposable {
 	private static final String LAST_SHOW_SIZE_CHECKBOX = "MavenHelperPro.lastShowSizeCheckBox";
 	private static final String LAST_FILTER_CHECKBOX = "MavenHelperPro.lastFilterCheckBox";
 	private static final String LAST_HIDE_TESTS_CHECKBOX = "MavenHelperPro.lastHideTestsCheckBox";
+	private static final String LAST_SIZE_SORT = "MavenHelperPro.lastSizeSort";
 	public static final SimpleTextAttributes SIZE_ATTRIBUTES = SimpleTextAttributes.GRAY_ATTRIBUTES;
 
 	private static final int UPDATE_DEBOUNCE_MS = 150;
 	private static final int AUTO_EXPAND_NODE_LIMIT = 2000;
 	private static final int RIGHT_TREE_UPDATE_DEBOUNCE_MS = 75;
-	private static final int RIGHT_TREE_MAX_PATHS = 200;
+	private static final int CONFLICT_TOOLTIP_MAX_DEPENDENTS = 10;
 	private static final int RIGHT_TREE_AUTO_EXPAND_NODE_LIMIT = 800;
 
 	private final Project project;
@@ -95,6 +93,9 @@ public class GuiForm implements Disposable {
 	private final Alarm rightTreeUpdateAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
 	private final AtomicLong rightTreeUpdateSeq = new AtomicLong();
 	private volatile boolean modelLoading;
+	private volatile boolean disposed;
+	private volatile SearchResult lastSearch;
+	private boolean refreshPending;
 	protected JBList leftPanelList;
 	private MyHighlightingTree rightTree;
 	private JPanel rootPanel;
@@ -113,6 +114,7 @@ public class GuiForm implements Disposable {
 	private MyHighlightingTree leftTree;
 	private JCheckBox showGroupId;
 	private JCheckBox showSize;
+	private JComboBox<SizeSortMode> sizeSort;
 	private JCheckBox hideTests;
 	private JPanel buttonsPanel;
 	private JButton donate;
@@ -121,26 +123,13 @@ public class GuiForm implements Disposable {
 	protected JEditorPane falsePositive;
 	private JCheckBox filter;
 	protected MyDefaultListModel listDataModel;
-	protected Map<String, List<MavenArtifactNode>> allArtifactsMap;
-	protected Map<String, List<MavenArtifactNode>> allArtifactsMapWithoutTests;
+	protected DependencyModel dependencyModel;
 	protected DefaultTreeModel rightTreeModel;
 	protected DefaultTreeModel leftTreeModel;
 	protected MyDefaultMutableTreeNode rightTreeRoot;
 	protected MyDefaultMutableTreeNode leftTreeRoot;
 	protected ListSpeedSearch myListSpeedSearch;
-	protected List<MavenArtifactNode> dependencyTree;
-	protected List<MavenArtifactNode> dependencyTreeWithoutTests;
 	protected CardLayout leftPanelLayout;
-	private List<MyListNode> allArtifactsListNodes = Collections.emptyList();
-	private List<MyListNode> allArtifactsListNodesWithoutTests = Collections.emptyList();
-	private List<MyListNode> conflictArtifactsListNodes = Collections.emptyList();
-	private List<MyListNode> allArtifactsListNodesByArtifactId = Collections.emptyList();
-	private List<MyListNode> allArtifactsListNodesWithoutTestsByArtifactId = Collections.emptyList();
-	private List<MyListNode> conflictArtifactsListNodesByArtifactId = Collections.emptyList();
-	private volatile List<MyListNode> allArtifactsListNodesByDeepSize;
-	private volatile List<MyListNode> allArtifactsListNodesWithoutTestsByDeepSize;
-	private volatile List<MyListNode> conflictArtifactsListNodesByDeepSize;
-	private volatile DependencySizeIndex dependencySizeIndex;
 
 	private boolean notificationShown;
 
@@ -149,8 +138,13 @@ public class GuiForm implements Disposable {
 	private MyProjectService.MyEventListener myEventListener;
 	private MavenProjectsManager mavenProjectsManager;
 	private MyProjectService myProjectService;
+	private DependencyModelService dependencyModelService;
 
 	private boolean manualReimport;
+	/**
+	 * the module was resolved while this analyzer was not visible, rebuild when it is selected
+	 */
+	private boolean rebuildOnSelect;
 	private RightTreePopupHandler rightTreePopupHandler;
 	private LeftTreePopupHandler leftTreePopupHandler;
 	private ListPopupHandler leftPanelListPopupHandler;
@@ -160,6 +154,7 @@ public class GuiForm implements Disposable {
 		this.file = file;
 		mavenProjectsManager = MavenProjectsManager.getInstance(project);
 		myProjectService = MyProjectService.getInstance(project);
+		dependencyModelService = DependencyModelService.getInstance(project);
 		this.mavenProject = mavenProject;
 
 		intellijBugLabel.setText("<html>\n" +
@@ -218,10 +213,7 @@ public class GuiForm implements Disposable {
 		refreshButton.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				refreshButton.setToolTipText(null);
-				refreshButton.setIcon(null);
-
-				initializeModel();
+				refresh();
 				rootPanel.requestFocus();
 			}
 		});
@@ -236,6 +228,7 @@ public class GuiForm implements Disposable {
 		try {
 			Method searchField = this.searchField.getClass().getMethod("getTextEditor");
 			JTextField invoke = (JTextField) searchField.invoke(this.searchField);
+			invoke.setToolTipText("<html>All terms must match, e.g. <code>jackson !test scope:runtime</code></html>");
 			invoke.addFocusListener(new FocusAdapter() {
 				@Override
 				public void focusLost(FocusEvent e) {
@@ -304,6 +297,13 @@ public class GuiForm implements Disposable {
 			scheduleUpdateLeftPanel(restoreSelection::restore);
 		});
 
+		sizeSort.setModel(new DefaultComboBoxModel<>(SizeSortMode.values()));
+		sizeSort.addActionListener((event) -> {
+			RestoreSelection restoreSelection = new RestoreSelection(leftPanelList, leftTree);
+			PropertiesComponent.getInstance().setValue(LAST_SIZE_SORT, getSizeSortMode().name());
+			scheduleUpdateLeftPanel(restoreSelection::restore);
+		});
+
 		hideTests.addActionListener((event) -> {
 			RestoreSelection restoreSelection = new RestoreSelection(leftPanelList, leftTree);
 			PropertiesComponent.getInstance().setValue(LAST_HIDE_TESTS_CHECKBOX, hideTests.isSelected());
@@ -329,6 +329,7 @@ public class GuiForm implements Disposable {
 		}
 		showGroupId.setSelected(Boolean.parseBoolean(PropertiesComponent.getInstance().getValue(LAST_SHOW_GROUP_ID_CHECKBOX)));
 		showSize.setSelected(Boolean.parseBoolean(PropertiesComponent.getInstance().getValue(LAST_SHOW_SIZE_CHECKBOX)));
+		sizeSort.setSelectedItem(parseSizeSortMode(PropertiesComponent.getInstance().getValue(LAST_SIZE_SORT)));
 		filter.setSelected(Boolean.parseBoolean(PropertiesComponent.getInstance().getValue(LAST_FILTER_CHECKBOX)));
 		hideTests.setSelected(Boolean.parseBoolean(PropertiesComponent.getInstance().getValue(LAST_HIDE_TESTS_CHECKBOX)));
 		Donate.init(donate);
@@ -337,19 +338,26 @@ public class GuiForm implements Disposable {
 		myEventListener = new MyProjectService.MyEventListener() {
 
 			@Override
-			public void projectResolved(@NotNull Pair<MavenProject, MavenProjectChanges> projectWithChanges, @Nullable NativeMavenProjectHolder nativeMavenProject) {
-				if (projectWithChanges.first == mavenProject) {
-					if (refreshButton.isShowing() && manualReimport) {
+			public void projectsResolved(@NotNull MyProjectService.ResolvedChangeset changeset) {
+				MyProjectService.ResolvedProject resolved = changeset.find(mavenProject);
+				if (resolved != null) {
+					boolean dependenciesChanged = resolved.dependenciesChanged();
+					boolean autoRefresh = manualReimport || (dependenciesChanged && dependencyModel != null);
+					if (autoRefresh && refreshButton.isShowing()) {
+						// the model is updated incrementally, so it is cheap enough to refresh without asking
 						manualReimport = false;
-						refreshButton.doClick();
+						refresh();
 					} else {
+						// hidden analyzers do not compete with the visible ones during a reimport
+						rebuildOnSelect |= autoRefresh;
+						manualReimport = false;
 						refreshButton.setIcon(AllIcons.General.BalloonWarning);
 						refreshButton.setToolTipText("Maven model changed, refresh UI");
 					}
 				}
 			}
 		};
-		myProjectService.register(myEventListener);
+		myProjectService.register(file, myEventListener);
 		reimport.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
@@ -361,7 +369,21 @@ public class GuiForm implements Disposable {
 
 	private void createUIComponents() {
 		listDataModel = new MyDefaultListModel();
-		leftPanelList = new JBList((ListModel) listDataModel);
+		leftPanelList = new JBList((ListModel) listDataModel) {
+			/**
+			 * built only for the hovered row, painting must not walk paths
+			 */
+			@Override
+			public String getToolTipText(MouseEvent event) {
+				int index = locationToIndex(event.getPoint());
+				Rectangle bounds = index >= 0 ? getCellBounds(index, index) : null;
+				if (bounds == null || !bounds.contains(event.getPoint())) {
+					return null;
+				}
+				MyListNode value = (MyListNode) getModel().getElementAt(index);
+				return value.isConflict() ? getConflictWinnerExplanation(value) : null;
+			}
+		};
 		leftPanelList.addListSelectionListener(new MyListSelectionListener());
 		// no generics in IJ12
 		leftPanelList.setCellRenderer(new ColoredListCellRenderer() {
@@ -380,6 +402,12 @@ public class GuiForm implements Disposable {
 				}
 				if (showSize.isSelected()) {
 					Utils.appendSize(this, value.getSize(), value.getTotalSize());
+					if (value.hasRetainedSize() && getSizeSortMode().isRetainedSize()) {
+						Utils.appendRetainedSize(this, value.getRetainedSize());
+					}
+					if (value.hasJarMetrics() && getSizeSortMode().isJarMetrics()) {
+						Utils.appendJarMetrics(this, value.getClassCount(), value.getUncompressedSize(), value.getDuplicateClassSize());
+					}
 				}
 				if (showGroupId.isSelected()) {
 					append(split[0] + " : ", attributes);
@@ -397,15 +425,62 @@ public class GuiForm implements Disposable {
 
 	@Override
 	public void dispose() {
+		disposed = true;
 		myProjectService.unregister(myEventListener);
+		DependencyModel model = dependencyModel;
+		if (model != null) {
+			dependencyModel = null;
+			dependencyModelService.release(model);
+		}
+	}
+
+	/**
+	 * Explains which dependency pulled in the version that won a conflict, and which artifacts depend on it.
+	 */
+	@Nullable
+	private String getConflictWinnerExplanation(@NotNull MyListNode listNode) {
+		DependencyModel model = dependencyModel;
+		MavenArtifactNode rightArtifact = listNode.getRightArtifact();
+		if (model == null || rightArtifact == null) {
+			return null;
+		}
+		ReverseDependencyIndex reverseIndex = model.getReverseIndex();
+		List<MavenArtifactNode> path = reverseIndex.getPathFromRoot(rightArtifact);
+		if (path == null) { // list repaint of a previous model while refreshing
+			return null;
+		}
+		StringBuilder sb = new StringBuilder("<html>Resolved ").append(rightArtifact.getArtifact().getVersion()).append(" via:");
+		for (MavenArtifactNode node : path) {
+			sb.append("<br>&nbsp;&nbsp;").append(DependencyGraph.getArtifactKey(node.getArtifact())).append(" : ").append(node.getArtifact().getVersion());
+		}
+
+		int coordinate = listNode.getCoordinate();
+		int dependentCount = reverseIndex.getDependentCount(coordinate);
+		if (dependentCount > 0) {
+			sb.append("<br>Required by ").append(dependentCount).append(dependentCount == 1 ? " artifact:" : " artifacts:");
+			DependencyGraph graph = model.getGraph();
+			for (int i = 0; i < Math.min(dependentCount, CONFLICT_TOOLTIP_MAX_DEPENDENTS); i++) {
+				sb.append("<br>&nbsp;&nbsp;").append(graph.getCoordinateKey(reverseIndex.getDependent(coordinate, i)));
+			}
+			if (dependentCount > CONFLICT_TOOLTIP_MAX_DEPENDENTS) {
+				sb.append("<br>&nbsp;&nbsp;...");
+			}
+		}
+		return sb.append("</html>").toString();
 	}
 
 	public void switchToLeftTree(MavenArtifactNode myArtifact) {
 		allDependenciesAsTreeRadioButton.setSelected(true);
 		searchField.setText(myArtifact.getArtifact().getArtifactId());
 		updateAlarm.cancelAllRequests();
+		DependencyModel model = dependencyModel;
+		List<MavenArtifactNode> path = model != null ? model.getReverseIndex().getPathFromRoot(myArtifact) : null;
 		startLeftPanelUpdate(captureLeftPanelState(), () -> {
-			TreeUtils.selectRows(leftTree, leftTreeRoot, myArtifact);
+			if (path != null) {
+				TreeUtils.selectRows(leftTree, leftTreeRoot, path);
+			} else {
+				TreeUtils.selectRows(leftTree, leftTreeRoot, myArtifact);
+			}
 			leftTree.requestFocus();
 		});
 	}
@@ -429,14 +504,14 @@ public class GuiForm implements Disposable {
 					return;
 				}
 
-				final String key = getArtifactKey(userObject.getArtifact());
-				Map<String, List<MavenArtifactNode>> map = hideTests.isSelected() ? allArtifactsMapWithoutTests : allArtifactsMap;
-				if (map == null) { // can be null while refreshing
+				DependencyModel model = dependencyModel;
+				if (model == null) { // can be null while refreshing
 					return;
 				}
-				List<MavenArtifactNode> mavenArtifactNodes = map.get(key);
-				if (mavenArtifactNodes != null) {// can be null while refreshing
-					scheduleUpdateRightTree(mavenArtifactNodes);
+				DependencyGraph graph = model.getGraph();
+				int coordinate = graph.findCoordinate(userObject.getArtifact());
+				if (coordinate != DependencyGraph.NONE) {// can be missing while refreshing
+					scheduleUpdateRightTree(graph.getOccurrences(coordinate, hideTests.isSelected()));
 				}
 			}
 		}
@@ -470,7 +545,13 @@ public class GuiForm implements Disposable {
 
 	private void startRightTreeUpdate(@NotNull List<MavenArtifactNode> mavenArtifactNodes, long seq) {
 		ApplicationManager.getApplication().executeOnPooledThread(() -> {
+			AnalyzerTelemetryService.Sample sample = AnalyzerTelemetryService.getInstance().start(AnalyzerTelemetryService.Operation.RIGHT_TREE_UPDATE);
 			RightTreeUpdateResult result = computeRightTreeUpdate(mavenArtifactNodes, seq);
+			if (result != null) {
+				sample.finish(result.children().size());
+			} else {
+				sample.cancel();
+			}
 			ApplicationManager.getApplication().invokeLater(() -> applyRightTreeUpdate(result, seq), ModalityState.any());
 		});
 	}
@@ -481,30 +562,23 @@ public class GuiForm implements Disposable {
 			return null;
 		}
 
-		int totalPaths = mavenArtifactNodes.size();
-		int shownPaths = Math.min(totalPaths, RIGHT_TREE_MAX_PATHS);
-
-		NodeCounter nodeCounter = new NodeCounter();
-		List<DefaultMutableTreeNode> children = new ArrayList<>(shownPaths + 1);
-
-		if (totalPaths > shownPaths) {
-			children.add(new DefaultMutableTreeNode("Too many paths (" + totalPaths + "), showing first " + shownPaths + ". Refine search to narrow results."));
-		}
-
-		for (int i = 0; i < shownPaths; i++) {
+		// nodes of the paths are created lazily when expanded, only the first level exists up front
+		List<DefaultMutableTreeNode> children = new ArrayList<>(mavenArtifactNodes.size());
+		int nodeCount = 0;
+		for (MavenArtifactNode mavenArtifactNode : mavenArtifactNodes) {
 			if (isRightTreeUpdateCancelled(seq)) {
 				return null;
 			}
-			MavenArtifactNode mavenArtifactNode = mavenArtifactNodes.get(i);
 			MyTreeUserObject userObject = new MyTreeUserObject(mavenArtifactNode);
 			userObject.showOnlyVersion = true;
-			DefaultMutableTreeNode newNode = new MyDefaultMutableTreeNode(userObject);
-			nodeCounter.count++;
-			fillRightTree(mavenArtifactNode, newNode, seq, nodeCounter);
+			LazyPathTreeNode newNode = new LazyPathTreeNode(userObject);
+			if (nodeCount <= RIGHT_TREE_AUTO_EXPAND_NODE_LIMIT) {
+				nodeCount += newNode.countPathNodes(RIGHT_TREE_AUTO_EXPAND_NODE_LIMIT + 1);
+			}
 			children.add(newNode);
 		}
 
-		boolean autoExpand = nodeCounter.count <= RIGHT_TREE_AUTO_EXPAND_NODE_LIMIT;
+		boolean autoExpand = nodeCount <= RIGHT_TREE_AUTO_EXPAND_NODE_LIMIT;
 		return new RightTreeUpdateResult(children, autoExpand);
 	}
 
@@ -531,27 +605,26 @@ public class GuiForm implements Disposable {
 		return seq != rightTreeUpdateSeq.get() || project.isDisposed();
 	}
 
-	private void fillRightTree(@NotNull MavenArtifactNode mavenArtifactNode, @NotNull DefaultMutableTreeNode node, long seq, @NotNull NodeCounter nodeCounter) {
-		if (isRightTreeUpdateCancelled(seq)) {
-			return;
-		}
-		MavenArtifactNode parent = mavenArtifactNode.getParent();
-		if (parent == null) {
-			return;
-		}
-		DefaultMutableTreeNode parentDependencyNode = new MyDefaultMutableTreeNode(new MyTreeUserObject(parent));
-		node.add(parentDependencyNode);
-		nodeCounter.count++;
-		fillRightTree(parent, parentDependencyNode, seq, nodeCounter);
+	private record RightTreeUpdateResult(@NotNull List<DefaultMutableTreeNode> children, boolean autoExpand) {
 	}
 
-	private record RightTreeUpdateResult(@NotNull List<DefaultMutableTreeNode> children, boolean autoExpand) {
+	/**
+	 * Unlike clicking the refresh button, works also while a model is loading, the refresh is then queued.
+	 */
+	private void refresh() {
+		refreshButton.setToolTipText(null);
+		refreshButton.setIcon(null);
+		initializeModel();
 	}
 
 	private void initializeModel() {
 		if (modelLoading) {
+			// rebuildOnSelect is kept until the queued build starts
+			refreshPending = true;
 			return;
 		}
+		refreshPending = false;
+		rebuildOnSelect = false;
 		updateAlarm.cancelAllRequests();
 		rightTreeUpdateAlarm.cancelAllRequests();
 		rightTreeUpdateSeq.incrementAndGet();
@@ -561,49 +634,22 @@ public class GuiForm implements Disposable {
 		rightTreePopupHandler.hidePopup();
 		leftTreePopupHandler.hidePopup();
 
-		final Object selectedValue = leftPanelList.getSelectedValue();
+		final RestoreSelection restoreSelection = new RestoreSelection(leftPanelList, leftTree);
 
 		modelLoading = true;
 		setLoadingUi(true);
 		ProgressManager.getInstance().run(new Task.Backgroundable(project, "Maven Helper Pro: Building dependency model", true) {
-			private List<MavenArtifactNode> newDependencyTree;
-			private List<MavenArtifactNode> newDependencyTreeWithoutTests;
-			private Map<String, List<MavenArtifactNode>> newAllArtifactsMap;
-			private Map<String, List<MavenArtifactNode>> newAllArtifactsMapWithoutTests;
-			private List<MyListNode> newAllArtifactsListNodes;
-			private List<MyListNode> newAllArtifactsListNodesWithoutTests;
-			private List<MyListNode> newConflictArtifactsListNodes;
-			private List<MyListNode> newAllArtifactsListNodesByArtifactId;
-			private List<MyListNode> newAllArtifactsListNodesWithoutTestsByArtifactId;
-			private List<MyListNode> newConflictArtifactsListNodesByArtifactId;
+			private DependencyModel newDependencyModel;
 			private long buildNanos;
 
 			@Override
 			public void run(@NotNull ProgressIndicator indicator) {
 				long start = System.nanoTime();
-
-				newDependencyTree = mavenProject.getDependencyTree();
-				indicator.checkCanceled();
-
-				newDependencyTreeWithoutTests = newDependencyTree.stream()
-					.filter(n -> !"test".equals(n.getArtifact().getScope()))
-					.toList();
-				indicator.checkCanceled();
-
-				newAllArtifactsMap = createAllArtifactsMap(newDependencyTree, false);
-				indicator.checkCanceled();
-				newAllArtifactsMapWithoutTests = createAllArtifactsMap(newDependencyTree, true);
-				indicator.checkCanceled();
-
-				newAllArtifactsListNodes = createListNodes(newAllArtifactsMap);
-				newAllArtifactsListNodesWithoutTests = createListNodes(newAllArtifactsMapWithoutTests);
-				newConflictArtifactsListNodes = createVersionConflictListNodes(newAllArtifactsListNodes);
-
-				newAllArtifactsListNodesByArtifactId = sortedCopy(newAllArtifactsListNodes, MyDefaultListModel.ARTIFACT_ID);
-				newAllArtifactsListNodesWithoutTestsByArtifactId = sortedCopy(newAllArtifactsListNodesWithoutTests, MyDefaultListModel.ARTIFACT_ID);
-				newConflictArtifactsListNodesByArtifactId = sortedCopy(newConflictArtifactsListNodes, MyDefaultListModel.ARTIFACT_ID);
-
-				buildNanos = System.nanoTime() - start;
+				try {
+					newDependencyModel = dependencyModelService.acquire(mavenProject);
+				} finally {
+					buildNanos = System.nanoTime() - start;
+				}
 			}
 
 			@Override
@@ -611,51 +657,58 @@ public class GuiForm implements Disposable {
 				modelLoading = false;
 				setLoadingUi(false);
 
-				if (project.isDisposed()) {
+				if (project.isDisposed() || disposed) {
 					return;
 				}
-
-				dependencyTree = newDependencyTree;
-				dependencyTreeWithoutTests = newDependencyTreeWithoutTests;
-				allArtifactsMap = newAllArtifactsMap;
-				allArtifactsMapWithoutTests = newAllArtifactsMapWithoutTests;
-				allArtifactsListNodes = newAllArtifactsListNodes;
-				allArtifactsListNodesWithoutTests = newAllArtifactsListNodesWithoutTests;
-				conflictArtifactsListNodes = newConflictArtifactsListNodes;
-				allArtifactsListNodesByArtifactId = newAllArtifactsListNodesByArtifactId;
-				allArtifactsListNodesWithoutTestsByArtifactId = newAllArtifactsListNodesWithoutTestsByArtifactId;
-				conflictArtifactsListNodesByArtifactId = newConflictArtifactsListNodesByArtifactId;
-				allArtifactsListNodesByDeepSize = null;
-				allArtifactsListNodesWithoutTestsByDeepSize = null;
-				conflictArtifactsListNodesByDeepSize = null;
-				dependencySizeIndex = null;
+				if (refreshPending && rootPanel.isShowing()) {
+					// resolved again while building, the new model is already outdated
+					initializeModel();
+					return;
+				}
+				rebuildOnSelect |= refreshPending;
+				refreshPending = false;
+
+				DependencyModel oldModel = dependencyModel;
+				dependencyModel = newDependencyModel;
+				newDependencyModel = null;
+				if (oldModel != null) {
+					dependencyModelService.release(oldModel);
+				}
 
 				updateAlarm.cancelAllRequests();
-				startLeftPanelUpdate(captureLeftPanelState(), null);
-
 				rightTreeRoot.removeAllChildren();
 				rightTreeModel.reload();
+				startLeftPanelUpdate(captureLeftPanelState(), restoreSelection::restore);
 				leftPanelWrapper.revalidate();
 
-				if (selectedValue != null) {
-					leftPanelList.setSelectedValue(selectedValue, true);
-				}
-
 				if (LOG.isDebugEnabled()) {
 					LOG.debug("Dependency model built in " + (buildNanos / 1_000_000) + " ms for " + file.getPath());
 				}
 			}
 
+			@Override
+			public void onFinished() {
+				DependencyModel unused = newDependencyModel;
+				if (unused != null) {
+					newDependencyModel = null;
+					dependencyModelService.release(unused);
+				}
+			}
+
 			@Override
 			public void onCancel() {
 				modelLoading = false;
 				setLoadingUi(false);
+				rebuildOnSelect |= refreshPending;
+				refreshPending = false;
 			}
 
 			@Override
 			public void onThrowable(@NotNull Throwable error) {
 				modelLoading = false;
 				setLoadingUi(false);
+				rebuildOnSelect |= refreshPending;
+				refreshPending = false;
 				LOG.warn("Failed to build Maven Helper Pro dependency model for " + file.getPath(), error);
 			}
 		});
@@ -672,7 +725,7 @@ public class GuiForm implements Disposable {
 	}
 
 	private void scheduleUpdateLeftPanel(@Nullable Runnable afterUpdate) {
-		if (modelLoading || dependencyTree == null) {
+		if (modelLoading || dependencyModel == null) {
 			return;
 		}
 		LeftPanelState state = captureLeftPanelState();
@@ -696,86 +749,111 @@ public class GuiForm implements Disposable {
 			hideTests.isSelected(),
 			filter.isSelected(),
 			showGroupId.isSelected(),
-			showSize.isSelected()
+			showSize.isSelected(),
+			getSizeSortMode()
 		);
 	}
 
-	private void startLeftPanelUpdate(@NotNull LeftPanelState state, @Nullable Runnable afterUpdate) {
-		long seq = uiUpdateSeq.incrementAndGet();
-		ApplicationManager.getApplication().executeOnPooledThread(() -> {
-			LeftPanelUpdateResult result = computeLeftPanelUpdate(state, seq);
-			ApplicationManager.getApplication().invokeLater(() -> applyLeftPanelUpdate(state, result, seq, afterUpdate), ModalityState.any());
-		});
-	}
-
-	private static List<MyListNode> createListNodes(@Nullable Map<String, List<MavenArtifactNode>> map) {
-		if (map == null || map.isEmpty()) {
-			return Collections.emptyList();
-		}
-		List<MyListNode> result = new ArrayList<>(map.size());
-		for (Map.Entry<String, List<MavenArtifactNode>> entry : map.entrySet()) {
-			result.add(new MyListNode(entry));
-		}
-		return result;
+	@NotNull
+	private SizeSortMode getSizeSortMode() {
+		Object selected = sizeSort.getSelectedItem();
+		return selected instanceof SizeSortMode mode ? mode : SizeSortMode.DEEP_SIZE;
 	}
 
-	private static <T> @NotNull List<T> sortedCopy(@NotNull List<T> source, @NotNull Comparator<? super T> comparator) {
-		if (source.isEmpty()) {
-			return Collections.emptyList();
+	@NotNull
+	private static SizeSortMode parseSizeSortMode(@Nullable String value) {
+		for (SizeSortMode mode : SizeSortMode.values()) {
+			if (mode.name().equals(value)) {
+				return mode;
+			}
 		}
-		List<T> copy = new ArrayList<>(source);
-		copy.sort(comparator);
-		return copy;
+		return SizeSortMode.DEEP_SIZE;
 	}
 
-	private List<MyListNode> createVersionConflictListNodes(@Nullable List<MyListNode> listNodes) {
-		if (listNodes == null || listNodes.isEmpty()) {
-			return Collections.emptyList();
-		}
-		List<MyListNode> result = new ArrayList<>();
-		for (MyListNode node : listNodes) {
-			List<MavenArtifactNode> nodes = node.getArtifacts();
-			if (nodes != null && nodes.size() > 1 && hasConflicts(nodes)) {
-				result.add(node);
+	private void startLeftPanelUpdate(@NotNull LeftPanelState state, @Nullable Runnable afterUpdate) {
+		long seq = uiUpdateSeq.incrementAndGet();
+		ApplicationManager.getApplication().executeOnPooledThread(() -> {
+			AnalyzerTelemetryService.Sample sample = AnalyzerTelemetryService.getInstance().start(AnalyzerTelemetryService.Operation.LEFT_PANEL_UPDATE);
+			LeftPanelUpdateResult result = computeLeftPanelUpdate(state, seq);
+			if (result instanceof ListResult listResult) {
+				sample.finish(listResult.items().size());
+			} else if (result instanceof TreeResult treeResult) {
+				sample.finish(treeResult.nodeCount());
+			} else {
+				sample.cancel();
 			}
-		}
-		return result;
+			ApplicationManager.getApplication().invokeLater(() -> applyLeftPanelUpdate(state, result, seq, afterUpdate), ModalityState.any());
+		});
 	}
 
 	@Nullable
 	private LeftPanelUpdateResult computeLeftPanelUpdate(@NotNull LeftPanelState state, long seq) {
-		if (allArtifactsMap == null || dependencyTree == null) {
+		DependencyModel model = dependencyModel;
+		if (model == null) {
 			return null;
 		}
 		if (isLeftPanelUpdateCancelled(seq)) {
 			return null;
 		}
+		DependencyGraph graph = model.getGraph();
 
 		DependencySizeIndex sizeIndex = null;
 		if (state.showSize) {
-			sizeIndex = getOrComputeDependencySizeIndex(seq);
+			sizeIndex = model.getOrComputeDependencySizeIndex(() -> isLeftPanelUpdateCancelled(seq));
 			if (sizeIndex == null) {
 				return null;
 			}
 		}
 
-		String searchText = state.searchText;
+		SearchQuery query = SearchQuery.parse(state.searchText);
+		// a longer query can only match a subset of the previous one, so only the previous matches need to be checked
+		SearchResult previous = lastSearch;
+		boolean refinement = previous != null && previous.model == model && query.isRefinementOf(previous.query);
+		BitSet matchingCoordinates = null;
+		if (!query.isEmpty()) {
+			matchingCoordinates = model.getSearchIndex().findCoordinates(query, refinement ? previous.coordinates : null);
+		}
+
 		if (state.mode == LeftPanelMode.ALL_AS_TREE) {
-			NodeCounter nodeCounter = new NodeCounter();
-			MyDefaultMutableTreeNode root = new MyDefaultMutableTreeNode();
-			fillLeftTree(root, state.hideTests ? dependencyTreeWithoutTests : dependencyTree, searchText, false, nodeCounter, state.filterTree, sizeIndex, seq);
-			sortTree(root, state);
-			return new TreeResult(root, nodeCounter.count);
+			BitSet previousNodes = null;
+			if (refinement && previous.treeNodes != null && previous.state.isSameView(state)) {
+				previousNodes = previous.treeNodes;
+			}
+			return computeLeftTree(model, state, query, matchingCoordinates, sizeIndex, previousNodes, seq);
 		}
 
-		boolean showNoConflictsLabel = state.mode == LeftPanelMode.CONFLICTS && isNoConflicts();
+		boolean showNoConflictsLabel = state.mode == LeftPanelMode.CONFLICTS && model.isNoConflicts();
+
+		// conflicts share the nodes of the full list
+		boolean withoutTests = state.hideTests && state.mode != LeftPanelMode.CONFLICTS;
+		JarMetricsIndex jarMetricsIndex = null;
+		if (state.showSize && state.sizeSortMode.isJarMetrics()) {
+			jarMetricsIndex = model.getOrComputeJarMetricsIndex(withoutTests, () -> isLeftPanelUpdateCancelled(seq));
+			if (jarMetricsIndex == null) {
+				return null;
+			}
+		}
+
+		RetainedSizeIndex retainedSizeIndex = null;
+		if (state.showSize && state.sizeSortMode.isRetainedSize()) {
+			retainedSizeIndex = model.getOrComputeRetainedSizeIndex(withoutTests, sizeIndex, () -> isLeftPanelUpdateCancelled(seq));
+			if (retainedSizeIndex == null) {
+				return null;
+			}
+		}
 
-		List<MyListNode> source = getListSourceSorted(state, sizeIndex, seq);
+		List<MyListNode> source;
+		if (refinement && previous.items != null && previous.state.isSameView(state)) {
+			source = previous.items;
+		} else {
+			source = getListSourceSorted(model, state, sizeIndex, jarMetricsIndex, retainedSizeIndex, seq);
+		}
 		if (source == null) {
 			return null;
 		}
 
-		if (StringUtil.isEmptyOrSpaces(searchText)) {
+		if (matchingCoordinates == null) {
+			rememberSearch(model, state, query, null, null, null);
 			return new ListResult(source, showNoConflictsLabel);
 		}
 
@@ -784,108 +862,55 @@ public class GuiForm implements Disposable {
 			if (isLeftPanelUpdateCancelled(seq)) {
 				return null;
 			}
-			if (contains(searchText, node.artifactKey)) {
+			if (matchingCoordinates.get(node.getCoordinate()) && matchesScope(query, node)) {
 				items.add(node);
 			}
 		}
+		rememberSearch(model, state, query, matchingCoordinates, items, null);
 		return new ListResult(items, showNoConflictsLabel);
 	}
 
-	@Nullable
-	private List<MyListNode> getListSourceSorted(@NotNull LeftPanelState state, @Nullable DependencySizeIndex sizeIndex, long seq) {
-		if (state.mode == LeftPanelMode.CONFLICTS) {
-			if (state.showSize) {
-				if (sizeIndex == null) {
-					return null;
-				}
-				return getOrComputeDeepSizeListNodes(DeepSizeList.CONFLICTS, sizeIndex, seq);
-			}
-			if (state.showGroupId) {
-				return conflictArtifactsListNodes;
-			}
-			return conflictArtifactsListNodesByArtifactId;
-		}
+	private void rememberSearch(@NotNull DependencyModel model,
+								@NotNull LeftPanelState state,
+								@NotNull SearchQuery query,
+								@Nullable BitSet matchingCoordinates,
+								@Nullable List<MyListNode> items,
+								@Nullable BitSet treeNodes) {
+		lastSearch = matchingCoordinates == null ? null : new SearchResult(model, state, query, matchingCoordinates, items, treeNodes);
+	}
 
-		if (state.showSize) {
-			if (sizeIndex == null) {
-				return null;
-			}
-			return getOrComputeDeepSizeListNodes(state.hideTests ? DeepSizeList.ALL_WITHOUT_TESTS : DeepSizeList.ALL, sizeIndex, seq);
-		}
-		if (state.showGroupId) {
-			return state.hideTests ? allArtifactsListNodesWithoutTests : allArtifactsListNodes;
-		}
-		return state.hideTests ? allArtifactsListNodesWithoutTestsByArtifactId : allArtifactsListNodesByArtifactId;
+	/**
+	 * Result of the last non-empty search, refined when the query grows.
+	 */
+	private record SearchResult(@NotNull DependencyModel model,
+								@NotNull LeftPanelState state,
+								@NotNull SearchQuery query,
+								@NotNull BitSet coordinates,
+								@Nullable List<MyListNode> items,
+								@Nullable BitSet treeNodes) {
 	}
 
 	@Nullable
-	private List<MyListNode> getOrComputeDeepSizeListNodes(@NotNull DeepSizeList list, @NotNull DependencySizeIndex sizeIndex, long seq) {
-		List<MyListNode> cached = getDeepSizeListCache(list);
-		if (cached != null) {
-			return cached;
+	private List<MyListNode> getListSourceSorted(@NotNull DependencyModel model,
+												 @NotNull LeftPanelState state,
+												 @Nullable DependencySizeIndex sizeIndex,
+												 @Nullable JarMetricsIndex jarMetricsIndex,
+												 @Nullable RetainedSizeIndex retainedSizeIndex,
+												 long seq) {
+		DependencyModel.ListKind kind;
+		if (state.mode == LeftPanelMode.CONFLICTS) {
+			kind = DependencyModel.ListKind.CONFLICTS;
+		} else {
+			kind = state.hideTests ? DependencyModel.ListKind.ALL_WITHOUT_TESTS : DependencyModel.ListKind.ALL;
 		}
 
-		synchronized (this) {
-			cached = getDeepSizeListCache(list);
-			if (cached != null) {
-				return cached;
-			}
-
-			List<MyListNode> base = switch (list) {
-				case ALL -> allArtifactsListNodes;
-				case ALL_WITHOUT_TESTS -> allArtifactsListNodesWithoutTests;
-				case CONFLICTS -> conflictArtifactsListNodes;
-			};
-
-			if (!ensureListNodeSizes(base, sizeIndex, seq)) {
-				return null;
-			}
-			if (isLeftPanelUpdateCancelled(seq)) {
-				return null;
-			}
-
-			List<MyListNode> sorted = sortedCopy(base, MyDefaultListModel.DEEP_SIZE);
-			if (isLeftPanelUpdateCancelled(seq)) {
+		if (state.showSize) {
+			if (sizeIndex == null) {
 				return null;
 			}
-			setDeepSizeListCache(list, sorted);
-			return sorted;
-		}
-	}
-
-	private boolean ensureListNodeSizes(@NotNull List<MyListNode> nodes, @NotNull DependencySizeIndex sizeIndex, long seq) {
-		for (MyListNode node : nodes) {
-			if (isLeftPanelUpdateCancelled(seq)) {
-				return false;
-			}
-			if (!node.hasComputedTotalSize()) {
-				sizeIndex.apply(node);
-			}
-		}
-		return !isLeftPanelUpdateCancelled(seq);
-	}
-
-	@Nullable
-	private List<MyListNode> getDeepSizeListCache(@NotNull DeepSizeList list) {
-		return switch (list) {
-			case ALL -> allArtifactsListNodesByDeepSize;
-			case ALL_WITHOUT_TESTS -> allArtifactsListNodesWithoutTestsByDeepSize;
-			case CONFLICTS -> conflictArtifactsListNodesByDeepSize;
-		};
-	}
-
-	private void setDeepSizeListCache(@NotNull DeepSizeList list, @NotNull List<MyListNode> value) {
-		switch (list) {
-			case ALL -> allArtifactsListNodesByDeepSize = value;
-			case ALL_WITHOUT_TESTS -> allArtifactsListNodesWithoutTestsByDeepSize = value;
-			case CONFLICTS -> conflictArtifactsListNodesByDeepSize = value;
+			return model.getOrComputeSizeSortedListNodes(kind, state.sizeSortMode, sizeIndex, jarMetricsIndex, retainedSizeIndex, () -> isLeftPanelUpdateCancelled(seq));
 		}
-	}
-
-	private enum DeepSizeList {
-		ALL,
-		ALL_WITHOUT_TESTS,
-		CONFLICTS,
+		return model.getListNodes(kind, !state.showGroupId);
 	}
 
 	private void applyLeftPanelUpdate(@NotNull LeftPanelState state, @Nullable LeftPanelUpdateResult result, long seq, @Nullable Runnable afterUpdate) {
@@ -895,7 +920,7 @@ public class GuiForm implements Disposable {
 		if (isLeftPanelUpdateCancelled(seq)) {
 			return;
 		}
-		if (modelLoading || dependencyTree == null || allArtifactsMap == null) {
+		if (modelLoading || dependencyModel == null) {
 			return;
 		}
 
@@ -914,6 +939,8 @@ public class GuiForm implements Disposable {
 			leftTreeModel.reload();
 			if (treeResult.nodeCount <= AUTO_EXPAND_NODE_LIMIT) {
 				TreeUtils.expandAll(leftTree);
+			} else if (treeResult.hits != null) {
+				expandSearchHits(treeResult.root, treeResult.hits);
 			}
 			showNoConflictsLabel = false;
 			leftPanelLayout.show(leftPanelWrapper, "allAsTree");
@@ -932,6 +959,7 @@ public class GuiForm implements Disposable {
 		}
 		buttonsPanel.setVisible(allDependenciesAsTreeRadioButton.isSelected());
 		filter.setVisible(allDependenciesAsTreeRadioButton.isSelected());
+		sizeSort.setVisible(showSize.isSelected() && !allDependenciesAsTreeRadioButton.isSelected());
 		noConflictsWarningLabelScrollPane.setVisible(conflictsWarning);
 		noConflictsLabel.setVisible(showNoConflictsLabel);
 
@@ -940,169 +968,54 @@ public class GuiForm implements Disposable {
 		}
 	}
 
-	private boolean isNoConflicts() {
-		return conflictArtifactsListNodes.isEmpty();
-	}
-
 	private boolean isLeftPanelUpdateCancelled(long seq) {
 		return seq != uiUpdateSeq.get() || project.isDisposed();
 	}
 
+	/**
+	 * Computes only which graph nodes the tree shows, Swing nodes are created by {@link LazyGraphTreeNode} once they
+	 * become visible.
+	 */
 	@Nullable
-	private DependencySizeIndex getOrComputeDependencySizeIndex(long seq) {
-		DependencySizeIndex cached = dependencySizeIndex;
-		if (cached != null) {
-			return cached;
-		}
-
-		DependencySizeIndex computed = DependencySizeIndex.compute(dependencyTree, () -> isLeftPanelUpdateCancelled(seq));
-		if (computed == null) {
+	private TreeResult computeLeftTree(@NotNull DependencyModel model,
+									   @NotNull LeftPanelState state,
+									   @NotNull SearchQuery query,
+									   @Nullable BitSet matchingCoordinates,
+									   @Nullable DependencySizeIndex sizeIndex,
+									   @Nullable BitSet previousNodes,
+									   long seq) {
+		LazyGraphTreeNode.View view = LazyGraphTreeNode.View.compute(model.getGraph(), query, matchingCoordinates, state.hideTests, state.filterTree,
+			sizeIndex, previousNodes, getTreeComparator(state), () -> isLeftPanelUpdateCancelled(seq));
+		if (view == null) {
 			return null;
 		}
-		dependencySizeIndex = computed;
-		return computed;
+		rememberSearch(model, state, query, matchingCoordinates, null, view.getIncludedNodes());
+		return new TreeResult(LazyGraphTreeNode.createRoot(view), view.getVisibleCount(), view.getHighlightedNodes());
 	}
 
-	private void sortTree(@NotNull MyDefaultMutableTreeNode root, @NotNull LeftPanelState state) {
+	@NotNull
+	private static Comparator<MyDefaultMutableTreeNode> getTreeComparator(@NotNull LeftPanelState state) {
 		if (state.showSize) {
-			root.sortBySize(MyDefaultMutableTreeNode.DEEP_SIZE);
+			return MyDefaultMutableTreeNode.DEEP_SIZE;
 		} else if (state.showGroupId) {
-			root.sortBySize(MyDefaultMutableTreeNode.GROUP_ID);
+			return MyDefaultMutableTreeNode.GROUP_ID;
 		} else {
-			root.sortBySize(MyDefaultMutableTreeNode.ARTIFACT_ID);
-		}
-	}
-
-	private static final class NodeCounter {
-		private int count;
-	}
-
-	private static final class DependencySizeIndex {
-		private final IdentityHashMap<MavenArtifactNode, Long> sizeKbByNode;
-		private final IdentityHashMap<MavenArtifactNode, Long> totalKbByNode;
-
-		private DependencySizeIndex(
-			@NotNull IdentityHashMap<MavenArtifactNode, Long> sizeKbByNode,
-			@NotNull IdentityHashMap<MavenArtifactNode, Long> totalKbByNode
-		) {
-			this.sizeKbByNode = sizeKbByNode;
-			this.totalKbByNode = totalKbByNode;
-		}
-
-		@Nullable
-		static DependencySizeIndex compute(@NotNull List<MavenArtifactNode> roots, @NotNull BooleanSupplier cancelled) {
-			IdentityHashMap<MavenArtifactNode, Boolean> visited = new IdentityHashMap<>();
-			ArrayDeque<MavenArtifactNode> stack = new ArrayDeque<>();
-			ArrayDeque<MavenArtifactNode> postOrder = new ArrayDeque<>();
-
-			for (MavenArtifactNode root : roots) {
-				if (cancelled.getAsBoolean()) {
-					return null;
-				}
-				if (root == null) {
-					continue;
-				}
-				stack.push(root);
-				while (!stack.isEmpty()) {
-					if (cancelled.getAsBoolean()) {
-						return null;
-					}
-					MavenArtifactNode node = stack.pop();
-					if (visited.put(node, Boolean.TRUE) != null) {
-						continue;
-					}
-					postOrder.push(node);
-					for (MavenArtifactNode dep : node.getDependencies()) {
-						if (dep != null) {
-							stack.push(dep);
-						}
-					}
-				}
-			}
-
-			IdentityHashMap<MavenArtifactNode, Long> sizeKbByNode = new IdentityHashMap<>(visited.size() * 2);
-			IdentityHashMap<MavenArtifactNode, Long> totalKbByNode = new IdentityHashMap<>(visited.size() * 2);
-
-			while (!postOrder.isEmpty()) {
-				if (cancelled.getAsBoolean()) {
-					return null;
-				}
-				MavenArtifactNode node = postOrder.pop();
-				long sizeKb = computeSizeKb(node);
-				sizeKbByNode.put(node, sizeKb);
-
-				long totalKb = sizeKb;
-				for (MavenArtifactNode dep : node.getDependencies()) {
-					Long depTotal = totalKbByNode.get(dep);
-					if (depTotal != null) {
-						totalKb += depTotal;
-					}
-				}
-				totalKbByNode.put(node, totalKb);
-			}
-
-			return new DependencySizeIndex(sizeKbByNode, totalKbByNode);
-		}
-
-		private static long computeSizeKb(@NotNull MavenArtifactNode node) {
-			File file = node.getArtifact().getFile();
-			if (file == null) {
-				return 0;
-			}
-			return file.length() / 1024;
-		}
-
-		void apply(@NotNull MyListNode node) {
-			MavenArtifactNode right = node.getRightArtifact();
-			if (right == null) {
-				node.setSizes(0, 0);
-				return;
-			}
-			node.setSizes(sizeKbOf(right), totalKbOf(right));
-		}
-
-		void apply(@NotNull MyTreeUserObject userObject, @NotNull MavenArtifactNode node) {
-			userObject.setSizes(sizeKbOf(node), totalKbOf(node));
-		}
-
-		private long totalKbOf(@NotNull MavenArtifactNode node) {
-			Long total = totalKbByNode.get(node);
-			return total != null ? total : sizeKbOf(node);
-		}
-
-		private long sizeKbOf(@NotNull MavenArtifactNode node) {
-			Long size = sizeKbByNode.get(node);
-			return size != null ? size : computeSizeKb(node);
+			return MyDefaultMutableTreeNode.ARTIFACT_ID;
 		}
 	}
 
-	private boolean fillLeftTree(DefaultMutableTreeNode parent, List<MavenArtifactNode> dependencyTree, String searchFieldText, boolean parentMatched, NodeCounter nodeCounter, boolean filterTree, @Nullable DependencySizeIndex sizeIndex, long seq) {
-		boolean search = !StringUtil.isEmptyOrSpaces(searchFieldText);
-		boolean hasAddedNodes = false;
-
-		for (MavenArtifactNode mavenArtifactNode : dependencyTree) {
-			if (isLeftPanelUpdateCancelled(seq)) {
-				return false;
-			}
-			boolean directMatch = false;
-			MyTreeUserObject treeUserObject = new MyTreeUserObject(mavenArtifactNode);
-			if (sizeIndex != null) {
-				sizeIndex.apply(treeUserObject, mavenArtifactNode);
-			}
-			if (search && contains(searchFieldText, mavenArtifactNode)) {
-				directMatch = true;
-				treeUserObject.highlight = true;
-			}
-			final DefaultMutableTreeNode newNode = new MyDefaultMutableTreeNode(treeUserObject);
-			boolean childAdded = fillLeftTree(newNode, mavenArtifactNode.getDependencies(), searchFieldText, directMatch || parentMatched, nodeCounter, filterTree, sizeIndex, seq);
-
-			if (!search || !filterTree || directMatch || childAdded || parentMatched) {
-				parent.add(newNode);
-				nodeCounter.count++;
-				hasAddedNodes = true;
+	/**
+	 * Makes search hits visible when the tree is too big to be expanded whole, path by path in tree order.
+	 */
+	private void expandSearchHits(@NotNull LazyGraphTreeNode root, @NotNull BitSet hits) {
+		int expandedNodes = 0;
+		for (int hit = hits.nextSetBit(0); hit >= 0 && expandedNodes <= AUTO_EXPAND_NODE_LIMIT; hit = hits.nextSetBit(hit + 1)) {
+			TreePath path = root.getPathTo(hit);
+			if (path != null) {
+				leftTree.makeVisible(path);
+				expandedNodes += path.getPathCount();
 			}
 		}
-		return hasAddedNodes;
 	}
 
 	private enum LeftPanelMode {
@@ -1117,8 +1030,20 @@ public class GuiForm implements Disposable {
 		boolean hideTests,
 		boolean filterTree,
 		boolean showGroupId,
-		boolean showSize
+		boolean showSize,
+		@NotNull SizeSortMode sizeSortMode
 	) {
+		/**
+		 * @return true if the states differ at most in the search text
+		 */
+		boolean isSameView(@NotNull LeftPanelState other) {
+			return mode == other.mode
+				&& hideTests == other.hideTests
+				&& filterTree == other.filterTree
+				&& showGroupId == other.showGroupId
+				&& showSize == other.showSize
+				&& sizeSortMode == other.sizeSortMode;
+		}
 	}
 
 	private sealed interface LeftPanelUpdateResult permits ListResult, TreeResult {
@@ -1127,70 +1052,18 @@ public class GuiForm implements Disposable {
 	private record ListResult(@NotNull List<MyListNode> items, boolean showNoConflictsLabel) implements LeftPanelUpdateResult {
 	}
 
-	private record TreeResult(@NotNull MyDefaultMutableTreeNode root, int nodeCount) implements LeftPanelUpdateResult {
-	}
-
-	private boolean contains(String searchFieldText, MavenArtifactNode mavenArtifactNode) {
-		MavenArtifact artifact = mavenArtifactNode.getArtifact();
-		return contains(searchFieldText, getArtifactKey(artifact));
-	}
-
-	private boolean contains(String searchFieldText, String artifactKey) {
-		return StringUtil.isEmptyOrSpaces(searchFieldText) || StringUtil.containsIgnoreCase(artifactKey, searchFieldText);
-	}
-
-	private boolean hasConflicts(List<MavenArtifactNode> nodes) {
-		String version = null;
-		for (MavenArtifactNode node : nodes) {
-			if (version != null && !version.equals(node.getArtifact().getVersion())) {
-				return true;
-			}
-			version = node.getArtifact().getVersion();
-		}
-		return false;
-	}
-
-	private Map<String, List<MavenArtifactNode>> createAllArtifactsMap(List<MavenArtifactNode> dependencyTree, boolean ignoreTestScope) {
-		final Map<String, List<MavenArtifactNode>> map = new TreeMap<String, List<MavenArtifactNode>>();
-		addAll(map, dependencyTree, ignoreTestScope, 0);
-		return map;
+	private record TreeResult(@NotNull LazyGraphTreeNode root, int nodeCount, @Nullable BitSet hits) implements LeftPanelUpdateResult {
 	}
 
-	private void addAll(Map<String, List<MavenArtifactNode>> map, List<MavenArtifactNode> artifactNodes, boolean ignoreTestScope, int i) {
-		if (map == null) {
-			return;
+	private static boolean matchesScope(@NotNull SearchQuery query, @NotNull MyListNode node) {
+		if (!query.hasScopeFilter()) {
+			return true;
 		}
-		if (i > 100) {
-			final StringBuilder stringBuilder = new StringBuilder();
-			for (MavenArtifactNode s : artifactNodes) {
-				final String s1 = s.getArtifact().toString();
-				stringBuilder.append(s1);
-				stringBuilder.append(" ");
-			}
-			LOG.error("Recursion aborted, artifactNodes = [" + stringBuilder + "]");
-			return;
+		MavenArtifactNode artifact = node.getRightArtifact();
+		if (artifact == null && !node.getArtifacts().isEmpty()) {
+			artifact = node.getArtifacts().get(0);
 		}
-		for (MavenArtifactNode mavenArtifactNode : artifactNodes) {
-			final MavenArtifact artifact = mavenArtifactNode.getArtifact();
-			if (ignoreTestScope && i == 0 && "test".equals(artifact.getScope())) {
-				continue;
-			}
-			final String key = getArtifactKey(artifact);
-			final List<MavenArtifactNode> mavenArtifactNodes = map.get(key);
-			if (mavenArtifactNodes == null) {
-				final ArrayList<MavenArtifactNode> value = new ArrayList<MavenArtifactNode>(1);
-				value.add(mavenArtifactNode);
-				map.put(key, value);
-			} else {
-				mavenArtifactNodes.add(mavenArtifactNode);
-			}
-			addAll(map, mavenArtifactNode.getDependencies(), ignoreTestScope, i + 1);
-		}
-	}
-
-	@NotNull
-	private String getArtifactKey(MavenArtifact artifact) {
-		return artifact.getGroupId() + " : " + artifact.getArtifactId();
+		return artifact != null && query.matchesScope(artifact.getArtifact().getScope());
 	}
 
 	public JComponent getRootComponent() {
@@ -1202,9 +1075,11 @@ public class GuiForm implements Disposable {
 	}
 
 	public void selectNotify() {
-		if (dependencyTree == null) {
+		if (dependencyModel == null) {
 			initializeModel();
 			splitPane.setDividerLocation(0.5);
+		} else if (rebuildOnSelect && !disposed) {
+			refresh();
 		}
 	}
 
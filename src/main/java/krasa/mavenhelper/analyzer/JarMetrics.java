@@ -0,0 +1,244 @@
+package krasa.mavenhelper.analyzer;
+
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Content of one jar as listed in its central directory: number of classes, compressed and uncompressed bytes, and
+ * the classes themselves as 64-bit name hashes with their uncompressed sizes, for duplicate detection across jars.
+ */
+public final class JarMetrics {
+	public static final JarMetrics EMPTY = new JarMetrics(0, 0, new long[0], new int[0]);
+
+	private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+	private static final int CENTRAL_FILE_HEADER = 0x02014b50;
+	private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+	private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+	private final long compressedBytes;
+	private final long uncompressedBytes;
+	private final long[] classHashes;
+	private final int[] classSizes;
+
+	private JarMetrics(long compressedBytes, long uncompressedBytes, long[] classHashes, int[] classSizes) {
+		this.compressedBytes = compressedBytes;
+		this.uncompressedBytes = uncompressedBytes;
+		this.classHashes = classHashes;
+		this.classSizes = classSizes;
+	}
+
+	public int getClassCount() {
+		return classHashes.length;
+	}
+
+	public long getCompressedBytes() {
+		return compressedBytes;
+	}
+
+	public long getUncompressedBytes() {
+		return uncompressedBytes;
+	}
+
+	long[] getClassHashes() {
+		return classHashes;
+	}
+
+	int[] getClassSizes() {
+		return classSizes;
+	}
+
+	/**
+	 * Reads only the central directory of the jar, entry data is never touched. The file is not memory mapped, a
+	 * mapping would keep it locked on Windows until garbage collected, so Maven could not overwrite a SNAPSHOT jar.
+	 * Directories (e.g. module target/classes) and unreadable files give {@link #EMPTY}.
+	 */
+	@NotNull
+	public static JarMetrics scan(@NotNull Path path) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return EMPTY;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < END_OF_CENTRAL_DIRECTORY_SIZE) {
+				return EMPTY;
+			}
+			int tailSize = (int) Math.min(size, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_SIZE);
+			ByteBuffer tail = read(channel, size - tailSize, tailSize);
+			int end = findEndOfCentralDirectory(tail);
+			if (end < 0) {
+				return EMPTY;
+			}
+			long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+			long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+			if (directoryOffset == 0xFFFFFFFFL || directorySize > Integer.MAX_VALUE || directoryOffset + directorySize > size) {
+				// zip64 or damaged, rare enough to not be worth a second parser
+				return scanWithZipFile(path);
+			}
+			return readCentralDirectory(read(channel, directoryOffset, (int) directorySize));
+		}
+	}
+
+	@NotNull
+	private static ByteBuffer read(@NotNull FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+		return buffer.flip();
+	}
+
+	private static int findEndOfCentralDirectory(@NotNull ByteBuffer tail) {
+		for (int i = tail.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@NotNull
+	private static JarMetrics readCentralDirectory(@NotNull ByteBuffer directory) {
+		long compressed = 0;
+		long uncompressed = 0;
+		LongArrayList hashes = new LongArrayList();
+		IntArrayList sizes = new IntArrayList();
+		int position = 0;
+		int limit = directory.limit();
+		while (position + 46 <= limit && directory.getInt(position) == CENTRAL_FILE_HEADER) {
+			long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+			long uncompressedSize = Integer.toUnsignedLong(directory.getInt(position + 24));
+			int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+			int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+			int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+			int nameStart = position + 46;
+			if (nameStart + nameLength > limit) {
+				break;
+			}
+
+			compressed += compressedSize;
+			uncompressed += uncompressedSize;
+			if (isClass(directory, nameStart, nameLength)) {
+				hashes.add(hash(directory, nameStart, nameLength));
+				sizes.add((int) Math.min(Integer.MAX_VALUE, uncompressedSize));
+			}
+			position = nameStart + nameLength + extraLength + commentLength;
+		}
+		return create(compressed, uncompressed, hashes, sizes);
+	}
+
+	@NotNull
+	private static JarMetrics scanWithZipFile(@NotNull Path path) throws IOException {
+		long compressed = 0;
+		long uncompressed = 0;
+		LongArrayList hashes = new LongArrayList();
+		IntArrayList sizes = new IntArrayList();
+		try (ZipFile zipFile = new ZipFile(path.toFile())) {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				long entrySize = Math.max(0, entry.getSize());
+				compressed += Math.max(0, entry.getCompressedSize());
+				uncompressed += entrySize;
+				String name = entry.getName();
+				if (name.endsWith(".class") && !name.endsWith("module-info.class") && !name.startsWith("META-INF/")) {
+					hashes.add(hash(name));
+					sizes.add((int) Math.min(Integer.MAX_VALUE, entrySize));
+				}
+			}
+		}
+		return create(compressed, uncompressed, hashes, sizes);
+	}
+
+	@NotNull
+	private static JarMetrics create(long compressed, long uncompressed, @NotNull LongArrayList hashes, @NotNull IntArrayList sizes) {
+		// sorted by hash, so that duplicates between two jars can be found by a merge
+		long[] hashArray = hashes.toLongArray();
+		int[] sizeArray = sizes.toIntArray();
+		Arrays.quickSort(0, hashArray.length, (a, b) -> Long.compare(hashArray[a], hashArray[b]), (a, b) -> {
+			long hash = hashArray[a];
+			hashArray[a] = hashArray[b];
+			hashArray[b] = hash;
+			int size = sizeArray[a];
+			sizeArray[a] = sizeArray[b];
+			sizeArray[b] = size;
+		});
+		return new JarMetrics(compressed, uncompressed, hashArray, sizeArray);
+	}
+
+	private static boolean isClass(@NotNull ByteBuffer directory, int nameStart, int nameLength) {
+		if (nameLength < 6
+			|| directory.get(nameStart + nameLength - 6) != '.'
+			|| directory.get(nameStart + nameLength - 5) != 'c'
+			|| directory.get(nameStart + nameLength - 4) != 'l'
+			|| directory.get(nameStart + nameLength - 3) != 'a'
+			|| directory.get(nameStart + nameLength - 2) != 's'
+			|| directory.get(nameStart + nameLength - 1) != 's') {
+			return false;
+		}
+		// module-info and multi-release variants are not classpath duplicates
+		return !endsWith(directory, nameStart, nameLength, "module-info.class") && !startsWith(directory, nameStart, nameLength, "META-INF/");
+	}
+
+	private static boolean endsWith(@NotNull ByteBuffer directory, int nameStart, int nameLength, @NotNull String suffix) {
+		if (nameLength < suffix.length()) {
+			return false;
+		}
+		int offset = nameStart + nameLength - suffix.length();
+		for (int i = 0; i < suffix.length(); i++) {
+			if (directory.get(offset + i) != suffix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean startsWith(@NotNull ByteBuffer directory, int nameStart, int nameLength, @NotNull String prefix) {
+		if (nameLength < prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (directory.get(nameStart + i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * FNV-1a over the raw name bytes, hashed in place without creating a String.
+	 */
+	private static long hash(@NotNull ByteBuffer directory, int nameStart, int nameLength) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < nameLength; i++) {
+			hash ^= directory.get(nameStart + i) & 0xFF;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	private static long hash(@NotNull String name) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xFF;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+}
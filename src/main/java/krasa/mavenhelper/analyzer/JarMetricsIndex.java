@@ -0,0 +1,104 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.concurrency.JobLauncher;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import krasa.mavenhelper.JarMetricsService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link JarMetrics} of the resolved artifact of every coordinate, plus bytes of classes that are also present in
+ * another resolved jar of the module.
+ */
+final class JarMetricsIndex {
+	private final int[] classCountByCoordinate;
+	private final long[] uncompressedKbByCoordinate;
+	private final long[] duplicateClassKbByCoordinate;
+
+	private JarMetricsIndex(int[] classCountByCoordinate, long[] uncompressedKbByCoordinate, long[] duplicateClassKbByCoordinate) {
+		this.classCountByCoordinate = classCountByCoordinate;
+		this.uncompressedKbByCoordinate = uncompressedKbByCoordinate;
+		this.duplicateClassKbByCoordinate = duplicateClassKbByCoordinate;
+	}
+
+	/**
+	 * @param listNodes one node per coordinate, the right artifacts form the classpath
+	 */
+	@Nullable
+	static JarMetricsIndex compute(@NotNull DependencyGraph graph, @NotNull List<MyListNode> listNodes, @NotNull BooleanSupplier cancelled) {
+		int coordinateCount = graph.getCoordinateCount();
+		List<MyListNode> resolved = new ArrayList<>(listNodes.size());
+		for (MyListNode node : listNodes) {
+			if (node.getRightArtifact() != null) {
+				resolved.add(node);
+			}
+		}
+
+		JarMetrics[] metrics = new JarMetrics[resolved.size()];
+		List<Integer> indices = new ArrayList<>(resolved.size());
+		for (int i = 0; i < resolved.size(); i++) {
+			indices.add(i);
+		}
+		boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(indices, null, i -> {
+			if (cancelled.getAsBoolean()) {
+				return false;
+			}
+			MavenArtifactNode right = resolved.get(i).getRightArtifact();
+			metrics[i] = JarMetricsService.getInstance().getMetrics(right.getArtifact());
+			return true;
+		});
+		if (!completed || cancelled.getAsBoolean()) {
+			return null;
+		}
+
+		// number of jars containing each class
+		Long2IntOpenHashMap jarsByClass = new Long2IntOpenHashMap();
+		for (JarMetrics jar : metrics) {
+			long[] hashes = jar.getClassHashes();
+			for (int i = 0; i < hashes.length; i++) {
+				if (i == 0 || hashes[i] != hashes[i - 1]) {
+					jarsByClass.addTo(hashes[i], 1);
+				}
+			}
+		}
+		if (cancelled.getAsBoolean()) {
+			return null;
+		}
+
+		int[] classCount = new int[coordinateCount];
+		long[] uncompressedKb = new long[coordinateCount];
+		long[] duplicateClassKb = new long[coordinateCount];
+		Arrays.fill(classCount, -1);
+		for (int i = 0; i < resolved.size(); i++) {
+			JarMetrics jar = metrics[i];
+			long[] hashes = jar.getClassHashes();
+			int[] sizes = jar.getClassSizes();
+			long duplicateBytes = 0;
+			for (int c = 0; c < hashes.length; c++) {
+				if (jarsByClass.get(hashes[c]) > 1) {
+					duplicateBytes += sizes[c];
+				}
+			}
+			int coordinate = resolved.get(i).getCoordinate();
+			classCount[coordinate] = jar.getClassCount();
+			uncompressedKb[coordinate] = jar.getUncompressedBytes() / 1024;
+			duplicateClassKb[coordinate] = duplicateBytes / 1024;
+		}
+		return new JarMetricsIndex(classCount, uncompressedKb, duplicateClassKb);
+	}
+
+	void apply(@NotNull MyListNode node) {
+		int coordinate = node.getCoordinate();
+		if (classCountByCoordinate[coordinate] < 0) {
+			node.setJarMetrics(0, 0, 0);
+			return;
+		}
+		node.setJarMetrics(classCountByCoordinate[coordinate], uncompressedKbByCoordinate[coordinate], duplicateClassKbByCoordinate[coordinate]);
+	}
+}
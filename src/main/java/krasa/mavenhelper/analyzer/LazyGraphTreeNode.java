@@ -0,0 +1,282 @@
+package krasa.mavenhelper.analyzer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.tree.TreeNode;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Node of the left "all dependencies as tree" tree backed directly by a {@link DependencyGraph} node. Children are
+ * created and sorted on first access, so that only expanded parts of the tree exist as Swing nodes.
+ * <p>
+ * The root has no user object and stands for {@link DependencyGraph#NONE}.
+ */
+class LazyGraphTreeNode extends MyDefaultMutableTreeNode {
+	private final View view;
+	private final int node;
+	private boolean childrenLoaded;
+
+	private LazyGraphTreeNode(@NotNull View view, int node, @Nullable MyTreeUserObject userObject) {
+		super(userObject);
+		this.view = view;
+		this.node = node;
+	}
+
+	@NotNull
+	static LazyGraphTreeNode createRoot(@NotNull View view) {
+		return new LazyGraphTreeNode(view, DependencyGraph.NONE, null);
+	}
+
+	int getGraphNode() {
+		return node;
+	}
+
+	@Override
+	public boolean isLeaf() {
+		if (childrenLoaded) {
+			return super.isLeaf();
+		}
+		DependencyGraph graph = view.graph;
+		if (node == DependencyGraph.NONE) {
+			for (int i = 0; i < graph.getRootCount(); i++) {
+				if (view.isVisible(graph.getRoot(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		for (int i = 0; i < graph.getChildCount(node); i++) {
+			if (view.isVisible(graph.getChild(node, i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int getChildCount() {
+		ensureChildrenLoaded();
+		return super.getChildCount();
+	}
+
+	@Override
+	public TreeNode getChildAt(int index) {
+		ensureChildrenLoaded();
+		return super.getChildAt(index);
+	}
+
+	@Override
+	public int getIndex(TreeNode node) {
+		ensureChildrenLoaded();
+		return super.getIndex(node);
+	}
+
+	@Override
+	public Enumeration<TreeNode> children() {
+		ensureChildrenLoaded();
+		return super.children();
+	}
+
+	private void ensureChildrenLoaded() {
+		if (childrenLoaded) {
+			return;
+		}
+		childrenLoaded = true;
+		DependencyGraph graph = view.graph;
+		List<LazyGraphTreeNode> loaded = new ArrayList<>();
+		if (node == DependencyGraph.NONE) {
+			for (int i = 0; i < graph.getRootCount(); i++) {
+				addChild(loaded, graph.getRoot(i));
+			}
+		} else {
+			for (int i = 0; i < graph.getChildCount(node); i++) {
+				addChild(loaded, graph.getChild(node, i));
+			}
+		}
+		loaded.sort(view.comparator);
+		for (LazyGraphTreeNode child : loaded) {
+			add(child);
+		}
+	}
+
+	private void addChild(@NotNull List<LazyGraphTreeNode> loaded, int child) {
+		if (!view.isVisible(child)) {
+			return;
+		}
+		MyTreeUserObject userObject = new MyTreeUserObject(view.graph.getNode(child));
+		if (view.sizeIndex != null) {
+			view.sizeIndex.apply(userObject, child);
+		}
+		userObject.highlight = view.highlightedNodes != null && view.highlightedNodes.get(child);
+		loaded.add(new LazyGraphTreeNode(view, child, userObject));
+	}
+
+	/**
+	 * Creates the Swing nodes down to the given graph node, called on the root.
+	 *
+	 * @return null if the node is not visible in this tree
+	 */
+	@Nullable
+	TreePath getPathTo(int target) {
+		List<Integer> graphPath = new ArrayList<>();
+		for (int current = target; current != DependencyGraph.NONE; current = view.graph.getParent(current)) {
+			graphPath.add(current);
+		}
+		LazyGraphTreeNode current = this;
+		TreePath path = new TreePath(this);
+		for (int i = graphPath.size() - 1; i >= 0; i--) {
+			current = current.findChild(graphPath.get(i));
+			if (current == null) {
+				return null;
+			}
+			path = path.pathByAddingChild(current);
+		}
+		return path;
+	}
+
+	@Nullable
+	private LazyGraphTreeNode findChild(int graphNode) {
+		for (int i = 0; i < getChildCount(); i++) {
+			LazyGraphTreeNode child = (LazyGraphTreeNode) getChildAt(i);
+			if (child.node == graphNode) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * What one left tree update shows, computed in background, Swing nodes are then created from it on demand.
+	 */
+	static final class View {
+		private final DependencyGraph graph;
+		/**
+		 * null when all nodes are shown
+		 */
+		@Nullable
+		private final BitSet includedNodes;
+		private final boolean hideTests;
+		@Nullable
+		private final BitSet highlightedNodes;
+		@Nullable
+		private final DependencySizeIndex sizeIndex;
+		private final Comparator<MyDefaultMutableTreeNode> comparator;
+		private final int visibleCount;
+
+		private View(@NotNull DependencyGraph graph,
+					 @Nullable BitSet includedNodes,
+					 boolean hideTests,
+					 @Nullable BitSet highlightedNodes,
+					 @Nullable DependencySizeIndex sizeIndex,
+					 @NotNull Comparator<MyDefaultMutableTreeNode> comparator,
+					 int visibleCount) {
+			this.graph = graph;
+			this.includedNodes = includedNodes;
+			this.hideTests = hideTests;
+			this.highlightedNodes = highlightedNodes;
+			this.sizeIndex = sizeIndex;
+			this.comparator = comparator;
+			this.visibleCount = visibleCount;
+		}
+
+		/**
+		 * @param matchingCoordinates null when not searching
+		 * @param filterTree          show only search hits, their subtrees and ancestors
+		 * @param previousNodes       included nodes of a previous search this query refines, nothing else can match
+		 * @return null if cancelled
+		 */
+		@Nullable
+		static View compute(@NotNull DependencyGraph graph,
+							@NotNull SearchQuery query,
+							@Nullable BitSet matchingCoordinates,
+							boolean hideTests,
+							boolean filterTree,
+							@Nullable DependencySizeIndex sizeIndex,
+							@Nullable BitSet previousNodes,
+							@NotNull Comparator<MyDefaultMutableTreeNode> comparator,
+							@NotNull BooleanSupplier cancelled) {
+			int nodeCount = graph.getNodeCount();
+			BitSet hits = null;
+			if (matchingCoordinates != null) {
+				hits = new BitSet(nodeCount);
+				for (int coordinate = matchingCoordinates.nextSetBit(0); coordinate >= 0; coordinate = matchingCoordinates.nextSetBit(coordinate + 1)) {
+					for (int i = 0; i < graph.getOccurrenceCount(coordinate); i++) {
+						int node = graph.getOccurrence(coordinate, i);
+						if ((!hideTests || !graph.isTest(node)) && query.matchesScope(graph.getNode(node).getArtifact().getScope())) {
+							hits.set(node);
+						}
+					}
+				}
+			}
+
+			BitSet includedNodes = null;
+			int visibleCount = 0;
+			if (hits != null && filterTree) {
+				// hits with their subtrees, parents precede children in pre-order
+				includedNodes = new BitSet(nodeCount);
+				int node = previousNodes == null ? 0 : previousNodes.nextSetBit(0);
+				while (node >= 0 && node < nodeCount) {
+					if ((node & 0xFFF) == 0 && cancelled.getAsBoolean()) {
+						return null;
+					}
+					int parent = graph.getParent(node);
+					if (hits.get(node) || (parent != DependencyGraph.NONE && includedNodes.get(parent))) {
+						includedNodes.set(node);
+					}
+					node = previousNodes == null ? node + 1 : previousNodes.nextSetBit(node + 1);
+				}
+				// and their ancestors
+				for (int hit = hits.nextSetBit(0); hit >= 0; hit = hits.nextSetBit(hit + 1)) {
+					for (int parent = graph.getParent(hit); parent != DependencyGraph.NONE && !includedNodes.get(parent); parent = graph.getParent(parent)) {
+						includedNodes.set(parent);
+					}
+				}
+				visibleCount = includedNodes.cardinality();
+			} else {
+				for (int node = 0; node < nodeCount; node++) {
+					if (!hideTests || !graph.isTest(node)) {
+						visibleCount++;
+					}
+				}
+			}
+			if (cancelled.getAsBoolean()) {
+				return null;
+			}
+			return new View(graph, includedNodes, hideTests, hits, sizeIndex, comparator, visibleCount);
+		}
+
+		/**
+		 * @return null when all nodes are shown
+		 */
+		@Nullable
+		BitSet getIncludedNodes() {
+			return includedNodes;
+		}
+
+		/**
+		 * @return search hits, null when not searching
+		 */
+		@Nullable
+		BitSet getHighlightedNodes() {
+			return highlightedNodes;
+		}
+
+		int getVisibleCount() {
+			return visibleCount;
+		}
+
+		private boolean isVisible(int node) {
+			if (hideTests && graph.isTest(node)) {
+				return false;
+			}
+			return includedNodes == null || includedNodes.get(node);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package krasa.mavenhelper.analyzer;
+
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+
+import javax.swing.tree.TreeNode;
+import java.util.Enumeration;
+
+/**
+ * Node of the right "paths to artifact" tree. Its only child - the dependency that pulled it in - is created on first
+ * access, so that only expanded paths exist as Swing nodes.
+ */
+class LazyPathTreeNode extends MyDefaultMutableTreeNode {
+	private boolean childLoaded;
+
+	LazyPathTreeNode(MyTreeUserObject userObject) {
+		super(userObject);
+	}
+
+	@Override
+	public boolean isLeaf() {
+		return getUserObject().getMavenArtifactNode().getParent() == null;
+	}
+
+	@Override
+	public int getChildCount() {
+		ensureChildLoaded();
+		return super.getChildCount();
+	}
+
+	@Override
+	public TreeNode getChildAt(int index) {
+		ensureChildLoaded();
+		return super.getChildAt(index);
+	}
+
+	@Override
+	public int getIndex(TreeNode node) {
+		ensureChildLoaded();
+		return super.getIndex(node);
+	}
+
+	@Override
+	public Enumeration<TreeNode> children() {
+		ensureChildLoaded();
+		return super.children();
+	}
+
+	private void ensureChildLoaded() {
+		if (childLoaded) {
+			return;
+		}
+		childLoaded = true;
+		MavenArtifactNode parent = getUserObject().getMavenArtifactNode().getParent();
+		if (parent != null) {
+			add(new LazyPathTreeNode(new MyTreeUserObject(parent)));
+		}
+	}
+
+	/**
+	 * @return number of nodes of the path from this node up to a top level dependency, at most {@code limit}
+	 */
+	int countPathNodes(int limit) {
+		int count = 0;
+		MavenArtifactNode node = getUserObject().getMavenArtifactNode();
+		while (node != null && count < limit) {
+			count++;
+			node = node.getParent();
+		}
+		return count;
+	}
+}
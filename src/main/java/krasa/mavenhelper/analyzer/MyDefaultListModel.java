@@ -35,6 +35,30 @@ public class MyDefaultListModel extends AbstractListModel<MyListNode> implements
 			return Long.compare(t1.getSize(), t0.getSize());
 		}
 	};
+	public static final Comparator<MyListNode> RETAINED_SIZE = new Comparator<MyListNode>() {
+		@Override
+		public int compare(MyListNode t0, MyListNode t1) {
+			return Long.compare(t1.getRetainedSize(), t0.getRetainedSize());
+		}
+	};
+	public static final Comparator<MyListNode> UNCOMPRESSED_SIZE = new Comparator<MyListNode>() {
+		@Override
+		public int compare(MyListNode t0, MyListNode t1) {
+			return Long.compare(t1.getUncompressedSize(), t0.getUncompressedSize());
+		}
+	};
+	public static final Comparator<MyListNode> CLASS_COUNT = new Comparator<MyListNode>() {
+		@Override
+		public int compare(MyListNode t0, MyListNode t1) {
+			return Integer.compare(t1.getClassCount(), t0.getClassCount());
+		}
+	};
+	public static final Comparator<MyListNode> DUPLICATE_CLASS_SIZE = new Comparator<MyListNode>() {
+		@Override
+		public int compare(MyListNode t0, MyListNode t1) {
+			return Long.compare(t1.getDuplicateClassSize(), t0.getDuplicateClassSize());
+		}
+	};
 
 	private final List<MyListNode> items = new ArrayList<>();
 
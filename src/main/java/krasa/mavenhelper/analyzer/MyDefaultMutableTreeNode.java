@@ -75,6 +75,6 @@ public class MyDefaultMutableTreeNode extends DefaultMutableTreeNode {
 	}
 
 	public Enumeration<MyDefaultMutableTreeNode> getChildren() {
-		return (Enumeration) super.children();
+		return (Enumeration) children();
 	}
 }
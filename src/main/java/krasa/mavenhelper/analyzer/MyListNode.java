@@ -1,12 +1,12 @@
 package krasa.mavenhelper.analyzer;
 
 import com.intellij.openapi.diagnostic.Logger;
+import krasa.mavenhelper.ArtifactSizeCacheService;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.idea.maven.model.MavenArtifactNode;
 import org.jetbrains.idea.maven.model.MavenArtifactState;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author Vojtech Krasa
@@ -16,22 +16,50 @@ public class MyListNode {
 	private static final long UNCOMPUTED = -2L;
 
 	protected final String artifactKey;
+	private final int coordinate;
 	private List<MavenArtifactNode> artifacts;
 	@Nullable
 	protected MavenArtifactNode rightArtifact;
 	protected boolean conflict;
 	private volatile long sizeKb = UNCOMPUTED;
 	private volatile long totalSizeKb = UNCOMPUTED;
+	private volatile int classCount = (int) UNCOMPUTED;
+	private volatile long uncompressedSizeKb;
+	private volatile long duplicateClassSizeKb;
+	private volatile long retainedSizeKb = UNCOMPUTED;
 	private String groupId;
 	private String artifactId;
 
-	public MyListNode(Map.Entry<String, List<MavenArtifactNode>> s) {
-		artifactKey = s.getKey();
-		artifacts = s.getValue();
+	public MyListNode(String artifactKey, int coordinate, List<MavenArtifactNode> artifacts) {
+		this.artifactKey = artifactKey;
+		this.coordinate = coordinate;
+		this.artifacts = artifacts;
 		initRightArtifact();
 		initConflict();
 	}
 
+	/**
+	 * Node for a re-resolved coordinate whose occurrences are the same as in the previous model,
+	 * see {@link DependencyModel#isSameOccurrences(List, List)}. Derived state is taken over instead of recomputed.
+	 */
+	MyListNode(MyListNode previous, int coordinate, List<MavenArtifactNode> artifacts) {
+		this.artifactKey = previous.artifactKey;
+		this.coordinate = coordinate;
+		this.artifacts = artifacts;
+		this.groupId = previous.groupId;
+		this.artifactId = previous.artifactId;
+		this.conflict = previous.conflict;
+		int rightIndex = previous.rightArtifact == null ? -1 : previous.artifacts.indexOf(previous.rightArtifact);
+		this.rightArtifact = rightIndex >= 0 ? artifacts.get(rightIndex) : null;
+	}
+
+	/**
+	 * @return coordinate id in the {@link DependencyGraph} this node was created from
+	 */
+	int getCoordinate() {
+		return coordinate;
+	}
+
 	public List<MavenArtifactNode> getArtifacts() {
 		return artifacts;
 	}
@@ -49,11 +77,7 @@ public class MyListNode {
 
 		long computed;
 		if (rightArtifact != null) {
-			if (rightArtifact.getArtifact().getFile() == null) {
-				computed = 0L;
-			} else {
-				computed = rightArtifact.getArtifact().getFile().length() / 1024;
-			}
+			computed = ArtifactSizeCacheService.getInstance().getSizeKb(rightArtifact.getArtifact());
 		} else {
 			computed = -1L;
 		}
@@ -78,6 +102,46 @@ public class MyListNode {
 		return totalSizeKb != UNCOMPUTED;
 	}
 
+	void setJarMetrics(int classCount, long uncompressedSizeKb, long duplicateClassSizeKb) {
+		this.uncompressedSizeKb = uncompressedSizeKb;
+		this.duplicateClassSizeKb = duplicateClassSizeKb;
+		this.classCount = classCount;
+	}
+
+	boolean hasJarMetrics() {
+		return classCount != UNCOMPUTED;
+	}
+
+	void setRetainedSize(long retainedSizeKb) {
+		this.retainedSizeKb = retainedSizeKb;
+	}
+
+	boolean hasRetainedSize() {
+		return retainedSizeKb != UNCOMPUTED;
+	}
+
+	/**
+	 * @return KB that would leave the classpath if this dependency was excluded everywhere, see {@link RetainedSizeIndex}
+	 */
+	public long getRetainedSize() {
+		return Math.max(0, retainedSizeKb);
+	}
+
+	public int getClassCount() {
+		return Math.max(0, classCount);
+	}
+
+	public long getUncompressedSize() {
+		return uncompressedSizeKb;
+	}
+
+	/**
+	 * @return KB of classes of the jar that are present also in another jar of the module
+	 */
+	public long getDuplicateClassSize() {
+		return duplicateClassSizeKb;
+	}
+
 	private void initRightArtifact() {
 		if (artifacts != null && !artifacts.isEmpty()) {
 			for (MavenArtifactNode mavenArtifactNode : artifacts) {
@@ -1,5 +1,6 @@
 package krasa.mavenhelper.analyzer;
 
+import krasa.mavenhelper.ArtifactSizeCacheService;
 import org.jetbrains.idea.maven.model.MavenArtifact;
 import org.jetbrains.idea.maven.model.MavenArtifactNode;
 
@@ -15,6 +16,8 @@ public class MyTreeUserObject {
 	boolean highlight;
 	private volatile long sizeKb = UNCOMPUTED;
 	private volatile long totalSizeKb = UNCOMPUTED;
+	private TreeNodeDescriptor descriptor;
+	private String sizeText;
 
 	public MyTreeUserObject(MavenArtifactNode mavenArtifactNode) {
 		this.mavenArtifactNode = mavenArtifactNode;
@@ -44,12 +47,7 @@ public class MyTreeUserObject {
 			return cached;
 		}
 
-		long computed;
-		if (getArtifact().getFile() == null) {
-			computed = 0L;
-		} else {
-			computed = getArtifact().getFile().length() / 1024;
-		}
+		long computed = ArtifactSizeCacheService.getInstance().getSizeKb(getArtifact());
 		sizeKb = computed;
 		return computed;
 	}
@@ -65,5 +63,26 @@ public class MyTreeUserObject {
 	void setSizes(long sizeKb, long totalSizeKb) {
 		this.sizeKb = sizeKb;
 		this.totalSizeKb = totalSizeKb;
+		sizeText = null;
+	}
+
+	/**
+	 * Called from the renderer only, in EDT.
+	 */
+	TreeNodeDescriptor getDescriptor() {
+		if (descriptor == null) {
+			descriptor = TreeNodeDescriptor.create(mavenArtifactNode);
+		}
+		return descriptor;
+	}
+
+	/**
+	 * Called from the renderer only, in EDT.
+	 */
+	String getSizeText() {
+		if (sizeText == null) {
+			sizeText = Utils.formatSize(getSize(), getTotalSize());
+		}
+		return sizeText;
 	}
 }
@@ -25,7 +25,8 @@ public class RestoreSelection {
 		if (selectedListNode != null) {
 			MyDefaultListModel model = (MyDefaultListModel) leftPanelList.getModel();
 			for (MyListNode o : model) {
-				if (o.getRightArtifact() != null && o.getRightArtifact().equals(selectedListNode.rightArtifact)) {
+				// nodes are equal by coordinate key, so the selection survives a re-resolve
+				if (o.equals(selectedListNode)) {
 					leftPanelList.setSelectedValue(o, true);
 					break;
 				}
@@ -0,0 +1,185 @@
+package krasa.mavenhelper.analyzer;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifactState;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Retained size of every coordinate - KB of resolved jars that would leave the classpath if the coordinate was
+ * excluded everywhere.
+ * <p>
+ * Coordinates form a graph with an edge for every parent/child pair of the dependency tree and a virtual root above
+ * the top level dependencies. A jar leaves the classpath together with a coordinate exactly when the coordinate
+ * dominates it, so retained sizes are sums over the dominator tree, computed by the iterative algorithm of Cooper,
+ * Harvey and Kennedy ("A Simple, Fast Dominance Algorithm"), which is near-linear on graphs like these.
+ */
+final class RetainedSizeIndex {
+	private static final int UNDEFINED = -1;
+
+	private final long[] retainedKbByCoordinate;
+	private final int[] immediateDominator;
+
+	private RetainedSizeIndex(long[] retainedKbByCoordinate, int[] immediateDominator) {
+		this.retainedKbByCoordinate = retainedKbByCoordinate;
+		this.immediateDominator = immediateDominator;
+	}
+
+	/**
+	 * @param withoutTests ignore test scoped dependencies and their subtrees
+	 */
+	@Nullable
+	static RetainedSizeIndex compute(@NotNull DependencyGraph graph, @NotNull DependencySizeIndex sizeIndex, boolean withoutTests, @NotNull BooleanSupplier cancelled) {
+		int coordinateCount = graph.getCoordinateCount();
+		int root = coordinateCount;
+		int vertexCount = coordinateCount + 1;
+
+		// successor and predecessor lists in CSR form
+		int[] successorStart = new int[vertexCount + 1];
+		int[] predecessorStart = new int[vertexCount + 1];
+		int edgeCount = 0;
+		for (int node = 0; node < graph.getNodeCount(); node++) {
+			int from = from(graph, node, root);
+			if ((withoutTests && graph.isTest(node)) || from == graph.getCoordinate(node)) {
+				continue;
+			}
+			successorStart[from + 1]++;
+			predecessorStart[graph.getCoordinate(node) + 1]++;
+			edgeCount++;
+		}
+		for (int i = 0; i < vertexCount; i++) {
+			successorStart[i + 1] += successorStart[i];
+			predecessorStart[i + 1] += predecessorStart[i];
+		}
+		int[] successors = new int[edgeCount];
+		int[] predecessors = new int[edgeCount];
+		int[] successorFill = Arrays.copyOf(successorStart, vertexCount);
+		int[] predecessorFill = Arrays.copyOf(predecessorStart, vertexCount);
+		for (int node = 0; node < graph.getNodeCount(); node++) {
+			int from = from(graph, node, root);
+			if ((withoutTests && graph.isTest(node)) || from == graph.getCoordinate(node)) {
+				continue;
+			}
+			int to = graph.getCoordinate(node);
+			successors[successorFill[from]++] = to;
+			predecessors[predecessorFill[to]++] = from;
+		}
+		if (cancelled.getAsBoolean()) {
+			return null;
+		}
+
+		// reverse post-order from the root, by an iterative depth first search
+		int[] postOrderNumber = new int[vertexCount];
+		Arrays.fill(postOrderNumber, UNDEFINED);
+		IntArrayList postOrder = new IntArrayList(vertexCount);
+		boolean[] visited = new boolean[vertexCount];
+		IntArrayList stack = new IntArrayList();
+		IntArrayList stackEdge = new IntArrayList();
+		stack.add(root);
+		stackEdge.add(successorStart[root]);
+		visited[root] = true;
+		while (!stack.isEmpty()) {
+			int top = stack.size() - 1;
+			int vertex = stack.getInt(top);
+			int edge = stackEdge.getInt(top);
+			if (edge < successorStart[vertex + 1]) {
+				stackEdge.set(top, edge + 1);
+				int next = successors[edge];
+				if (!visited[next]) {
+					visited[next] = true;
+					stack.add(next);
+					stackEdge.add(successorStart[next]);
+				}
+			} else {
+				stack.removeInt(top);
+				stackEdge.removeInt(top);
+				postOrderNumber[vertex] = postOrder.size();
+				postOrder.add(vertex);
+			}
+		}
+
+		int[] idom = new int[vertexCount];
+		Arrays.fill(idom, UNDEFINED);
+		idom[root] = root;
+		boolean changed = true;
+		while (changed) {
+			if (cancelled.getAsBoolean()) {
+				return null;
+			}
+			changed = false;
+			for (int i = postOrder.size() - 2; i >= 0; i--) {
+				int vertex = postOrder.getInt(i);
+				int newIdom = UNDEFINED;
+				for (int p = predecessorStart[vertex]; p < predecessorStart[vertex + 1]; p++) {
+					int predecessor = predecessors[p];
+					if (idom[predecessor] == UNDEFINED) {
+						continue;
+					}
+					newIdom = newIdom == UNDEFINED ? predecessor : intersect(predecessor, newIdom, idom, postOrderNumber);
+				}
+				if (idom[vertex] != newIdom) {
+					idom[vertex] = newIdom;
+					changed = true;
+				}
+			}
+		}
+
+		// post-order visits every vertex before its immediate dominator
+		long[] retained = new long[vertexCount];
+		for (int coordinate = 0; coordinate < coordinateCount; coordinate++) {
+			retained[coordinate] = getResolvedSizeKb(graph, sizeIndex, coordinate, withoutTests);
+		}
+		for (int i = 0; i < postOrder.size() - 1; i++) {
+			int vertex = postOrder.getInt(i);
+			retained[idom[vertex]] += retained[vertex];
+		}
+		return new RetainedSizeIndex(Arrays.copyOf(retained, coordinateCount), Arrays.copyOf(idom, coordinateCount));
+	}
+
+	private static int from(@NotNull DependencyGraph graph, int node, int root) {
+		int parent = graph.getParent(node);
+		return parent == DependencyGraph.NONE ? root : graph.getCoordinate(parent);
+	}
+
+	private static int intersect(int a, int b, int[] idom, int[] postOrderNumber) {
+		while (a != b) {
+			while (postOrderNumber[a] < postOrderNumber[b]) {
+				a = idom[a];
+			}
+			while (postOrderNumber[b] < postOrderNumber[a]) {
+				b = idom[b];
+			}
+		}
+		return a;
+	}
+
+	/**
+	 * @return size of the jar that is on the classpath for the coordinate, 0 if all its occurrences were omitted
+	 */
+	private static long getResolvedSizeKb(@NotNull DependencyGraph graph, @NotNull DependencySizeIndex sizeIndex, int coordinate, boolean withoutTests) {
+		for (int i = 0; i < graph.getOccurrenceCount(coordinate); i++) {
+			int node = graph.getOccurrence(coordinate, i);
+			if (withoutTests && graph.isTest(node)) {
+				continue;
+			}
+			if (graph.getNode(node).getState() == MavenArtifactState.ADDED) {
+				return sizeIndex.getSizeKb(node);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return 0 for coordinates not reachable in this view
+	 */
+	long getRetainedSizeKb(int coordinate) {
+		return immediateDominator[coordinate] == UNDEFINED ? 0 : retainedKbByCoordinate[coordinate];
+	}
+
+	void apply(@NotNull MyListNode node) {
+		node.setRetainedSize(getRetainedSizeKb(node.getCoordinate()));
+	}
+}
@@ -0,0 +1,102 @@
+package krasa.mavenhelper.analyzer;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Who-depends-on-me index of a {@link DependencyGraph}, built together with the model.
+ * <p>
+ * Keeps the distinct parent coordinates of every coordinate and the node id of every {@link MavenArtifactNode}, so
+ * that dependents and paths to a top level dependency are answered without walking the tree.
+ */
+final class ReverseDependencyIndex {
+	private final DependencyGraph graph;
+	private final int[] dependentStart;
+	private final int[] dependents;
+	private final Reference2IntOpenHashMap<MavenArtifactNode> nodeIds;
+
+	private ReverseDependencyIndex(@NotNull DependencyGraph graph, int[] dependentStart, int[] dependents, @NotNull Reference2IntOpenHashMap<MavenArtifactNode> nodeIds) {
+		this.graph = graph;
+		this.dependentStart = dependentStart;
+		this.dependents = dependents;
+		this.nodeIds = nodeIds;
+	}
+
+	@NotNull
+	static ReverseDependencyIndex build(@NotNull DependencyGraph graph) {
+		int nodeCount = graph.getNodeCount();
+		Reference2IntOpenHashMap<MavenArtifactNode> nodeIds = new Reference2IntOpenHashMap<>(nodeCount);
+		nodeIds.defaultReturnValue(DependencyGraph.NONE);
+		LongArrayList edges = new LongArrayList(nodeCount);
+		for (int node = 0; node < nodeCount; node++) {
+			nodeIds.put(graph.getNode(node), node);
+			int parent = graph.getParent(node);
+			if (parent != DependencyGraph.NONE) {
+				edges.add(((long) graph.getCoordinate(node) << 32) | graph.getCoordinate(parent));
+			}
+		}
+
+		// sorted (child, parent) pairs, duplicates dropped, in CSR form
+		long[] sorted = edges.toLongArray();
+		Arrays.sort(sorted);
+		int coordinateCount = graph.getCoordinateCount();
+		int[] dependentStart = new int[coordinateCount + 1];
+		int[] dependents = new int[sorted.length];
+		int size = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (i > 0 && sorted[i] == sorted[i - 1]) {
+				continue;
+			}
+			int child = (int) (sorted[i] >>> 32);
+			dependents[size++] = (int) sorted[i];
+			dependentStart[child + 1]++;
+		}
+		for (int i = 0; i < coordinateCount; i++) {
+			dependentStart[i + 1] += dependentStart[i];
+		}
+		return new ReverseDependencyIndex(graph, dependentStart, Arrays.copyOf(dependents, size), nodeIds);
+	}
+
+	/**
+	 * @return number of distinct coordinates that depend on the coordinate directly
+	 */
+	int getDependentCount(int coordinate) {
+		return dependentStart[coordinate + 1] - dependentStart[coordinate];
+	}
+
+	int getDependent(int coordinate, int index) {
+		return dependents[dependentStart[coordinate] + index];
+	}
+
+	/**
+	 * @return node id or {@link DependencyGraph#NONE} if the node is not part of the graph, e.g. after a re-resolve
+	 */
+	int getNodeId(@NotNull MavenArtifactNode node) {
+		return nodeIds.getInt(node);
+	}
+
+	/**
+	 * @return nodes from a top level dependency down to the given node, null if the node is not part of the graph
+	 */
+	@Nullable
+	List<MavenArtifactNode> getPathFromRoot(@NotNull MavenArtifactNode artifactNode) {
+		int node = getNodeId(artifactNode);
+		if (node == DependencyGraph.NONE) {
+			return null;
+		}
+		List<MavenArtifactNode> path = new ArrayList<>();
+		for (int current = node; current != DependencyGraph.NONE; current = graph.getParent(current)) {
+			path.add(graph.getNode(current));
+		}
+		Collections.reverse(path);
+		return path;
+	}
+}
@@ -0,0 +1,158 @@
+package krasa.mavenhelper.analyzer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parsed text of the Dependency Analyzer search field.
+ * <p>
+ * Whitespace separated terms must all be contained in the {@code groupId : artifactId} key, terms prefixed with
+ * {@code !} must not be, and {@code scope:} terms (optionally negated) filter by dependency scope, e.g.
+ * {@code jackson !test scope:runtime}.
+ */
+public final class SearchQuery {
+	public static final SearchQuery EMPTY = new SearchQuery("", List.of(), List.of(), List.of(), List.of());
+
+	private static final String SCOPE_PREFIX = "scope:";
+
+	private final String text;
+	private final List<String> terms;
+	private final List<String> excludedTerms;
+	private final List<String> scopes;
+	private final List<String> excludedScopes;
+
+	private SearchQuery(@NotNull String text,
+						@NotNull List<String> terms,
+						@NotNull List<String> excludedTerms,
+						@NotNull List<String> scopes,
+						@NotNull List<String> excludedScopes) {
+		this.text = text;
+		this.terms = terms;
+		this.excludedTerms = excludedTerms;
+		this.scopes = scopes;
+		this.excludedScopes = excludedScopes;
+	}
+
+	@NotNull
+	public static SearchQuery parse(@Nullable String text) {
+		if (text == null || text.isBlank()) {
+			return EMPTY;
+		}
+		List<String> terms = new ArrayList<>();
+		List<String> excludedTerms = new ArrayList<>();
+		List<String> scopes = new ArrayList<>();
+		List<String> excludedScopes = new ArrayList<>();
+		for (String token : text.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+			boolean negated = token.startsWith("!");
+			if (negated) {
+				token = token.substring(1);
+			}
+			if (token.isEmpty()) {
+				continue;
+			}
+			if (token.startsWith(SCOPE_PREFIX) && token.length() > SCOPE_PREFIX.length()) {
+				(negated ? excludedScopes : scopes).add(token.substring(SCOPE_PREFIX.length()));
+			} else {
+				(negated ? excludedTerms : terms).add(token);
+			}
+		}
+		return new SearchQuery(text, Collections.unmodifiableList(terms), Collections.unmodifiableList(excludedTerms),
+			Collections.unmodifiableList(scopes), Collections.unmodifiableList(excludedScopes));
+	}
+
+	public boolean isEmpty() {
+		return terms.isEmpty() && excludedTerms.isEmpty() && scopes.isEmpty() && excludedScopes.isEmpty();
+	}
+
+	@NotNull
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return lower case terms that the key must contain
+	 */
+	@NotNull
+	List<String> getTerms() {
+		return terms;
+	}
+
+	/**
+	 * @return lower case terms that the key must not contain
+	 */
+	@NotNull
+	List<String> getExcludedTerms() {
+		return excludedTerms;
+	}
+
+	/**
+	 * @return true if everything this query matches is matched also by {@code previous}, e.g. "jackson" after "jack"
+	 */
+	boolean isRefinementOf(@NotNull SearchQuery previous) {
+		if (previous.isEmpty() || !scopes.equals(previous.scopes) || !excludedScopes.equals(previous.excludedScopes)) {
+			return false;
+		}
+		for (String previousTerm : previous.terms) {
+			if (!containsSubstringOf(terms, previousTerm, false)) {
+				return false;
+			}
+		}
+		for (String previousTerm : previous.excludedTerms) {
+			if (!containsSubstringOf(excludedTerms, previousTerm, true)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param reversed find a term contained in {@code value} instead of a term containing it
+	 */
+	private static boolean containsSubstringOf(@NotNull List<String> terms, @NotNull String value, boolean reversed) {
+		for (String term : terms) {
+			if (reversed ? value.contains(term) : term.contains(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	boolean hasScopeFilter() {
+		return !scopes.isEmpty() || !excludedScopes.isEmpty();
+	}
+
+	boolean matchesScope(@Nullable String scope) {
+		String normalized = scope == null ? "compile" : scope.toLowerCase(Locale.ROOT);
+		if (excludedScopes.contains(normalized)) {
+			return false;
+		}
+		return scopes.isEmpty() || scopes.contains(normalized);
+	}
+
+	/**
+	 * @param lowerCaseKey coordinate key in lower case
+	 */
+	boolean matchesKey(@NotNull String lowerCaseKey) {
+		for (String term : terms) {
+			if (!lowerCaseKey.contains(term)) {
+				return false;
+			}
+		}
+		for (String term : excludedTerms) {
+			if (lowerCaseKey.contains(term)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+}
@@ -0,0 +1,51 @@
+package krasa.mavenhelper.analyzer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+
+/**
+ * Order of the dependency list when sizes are shown.
+ */
+public enum SizeSortMode {
+	DEEP_SIZE("Deep Size", MyDefaultListModel.DEEP_SIZE, false),
+	RETAINED_SIZE("Retained Size", MyDefaultListModel.RETAINED_SIZE, false),
+	SHALLOW_SIZE("Jar Size", MyDefaultListModel.SHALLOW_SIZE, false),
+	UNCOMPRESSED_SIZE("Uncompressed Size", MyDefaultListModel.UNCOMPRESSED_SIZE, true),
+	CLASS_COUNT("Class Count", MyDefaultListModel.CLASS_COUNT, true),
+	DUPLICATE_CLASS_SIZE("Duplicate Classes", MyDefaultListModel.DUPLICATE_CLASS_SIZE, true);
+
+	private final String displayName;
+	private final Comparator<MyListNode> comparator;
+	private final boolean jarMetrics;
+
+	SizeSortMode(@NotNull String displayName, @NotNull Comparator<MyListNode> comparator, boolean jarMetrics) {
+		this.displayName = displayName;
+		this.comparator = comparator;
+		this.jarMetrics = jarMetrics;
+	}
+
+	@NotNull
+	public Comparator<MyListNode> getComparator() {
+		return comparator;
+	}
+
+	/**
+	 * @return true if the mode needs jar contents to be scanned, see {@link JarMetrics}
+	 */
+	public boolean isJarMetrics() {
+		return jarMetrics;
+	}
+
+	/**
+	 * @return true if the mode needs the dominator tree, see {@link RetainedSizeIndex}
+	 */
+	public boolean isRetainedSize() {
+		return this == RETAINED_SIZE;
+	}
+
+	@Override
+	public String toString() {
+		return displayName;
+	}
+}
@@ -0,0 +1,92 @@
+package krasa.mavenhelper.analyzer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jetbrains.idea.maven.model.MavenArtifactState;
+
+/**
+ * Text fragments and flags of one tree row, computed once per {@link MyTreeUserObject}, so that {@link TreeRenderer}
+ * only appends them on every paint.
+ */
+final class TreeNodeDescriptor {
+	enum Scope {
+		COMPILE,
+		TEST,
+		PROVIDED,
+		RUNTIME,
+		OTHER
+	}
+
+	final String groupIdPrefix;
+	final String artifactId;
+	final String version;
+	final String versionSuffix;
+	final String scopeSuffix;
+	final Scope scope;
+	final boolean omitted;
+	final boolean conflictAlternativeMethod;
+	final boolean added;
+	/**
+	 * CONFLICT state without a version mismatch, see {@link GuiForm#intellijBugLabel}
+	 */
+	final boolean intellijBug;
+	/**
+	 * null unless {@link #isError()}
+	 */
+	@Nullable
+	final String conflictNote;
+
+	private TreeNodeDescriptor(@NotNull MavenArtifactNode mavenArtifactNode) {
+		MavenArtifact artifact = mavenArtifactNode.getArtifact();
+		String classifier = artifact.getClassifier();
+		groupIdPrefix = artifact.getGroupId() + " : ";
+		artifactId = artifact.getArtifactId();
+		version = artifact.getVersion();
+		versionSuffix = " : " + version;
+		scopeSuffix = " [" + (classifier != null ? classifier + " - " : "") + artifact.getScope() + "]";
+		scope = toScope(artifact.getScope());
+		omitted = Utils.isOmitted(mavenArtifactNode);
+		conflictAlternativeMethod = Utils.isConflictAlternativeMethod(mavenArtifactNode);
+		added = mavenArtifactNode.getState() == MavenArtifactState.ADDED;
+		intellijBug = mavenArtifactNode.getState() == MavenArtifactState.CONFLICT && !Utils.isVersionMismatch(mavenArtifactNode);
+
+		if (omitted) {
+			conflictNote = " (omitted for conflict with: " + getConflictWinner(mavenArtifactNode) + ")";
+		} else if (conflictAlternativeMethod) {
+			conflictNote = " (artifact state: " + mavenArtifactNode.getState() + ", conflict with: " + getConflictWinner(mavenArtifactNode) + ")";
+		} else {
+			conflictNote = null;
+		}
+	}
+
+	@NotNull
+	static TreeNodeDescriptor create(@NotNull MavenArtifactNode mavenArtifactNode) {
+		return new TreeNodeDescriptor(mavenArtifactNode);
+	}
+
+	boolean isError() {
+		return omitted || conflictAlternativeMethod;
+	}
+
+	@NotNull
+	private static String getConflictWinner(@NotNull MavenArtifactNode mavenArtifactNode) {
+		MavenArtifact conflictWinner = mavenArtifactNode.getRelatedArtifact();
+		return conflictWinner != null ? conflictWinner.getVersion() : "null";
+	}
+
+	@NotNull
+	private static Scope toScope(@Nullable String scope) {
+		if (scope == null) {
+			return Scope.OTHER;
+		}
+		return switch (scope) {
+			case "compile" -> Scope.COMPILE;
+			case "test" -> Scope.TEST;
+			case "provided" -> Scope.PROVIDED;
+			case "runtime" -> Scope.RUNTIME;
+			default -> Scope.OTHER;
+		};
+	}
+}
@@ -6,10 +6,6 @@ import com.intellij.ui.SimpleTextAttributes;
 import krasa.mavenhelper.MavenHelperApplicationService;
 import krasa.mavenhelper.model.ApplicationSettings;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-import org.jetbrains.idea.maven.model.MavenArtifact;
-import org.jetbrains.idea.maven.model.MavenArtifactNode;
-import org.jetbrains.idea.maven.model.MavenArtifactState;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -58,85 +54,74 @@ public class TreeRenderer extends ColoredTreeCellRenderer {
 			append(message, SimpleTextAttributes.GRAYED_ATTRIBUTES);
 			return;
 		}
-		if (!(userObject instanceof MyTreeUserObject))
+		if (!(userObject instanceof MyTreeUserObject myTreeUserObject))
 			return;
 
-		MyTreeUserObject myTreeUserObject = (MyTreeUserObject) userObject;
-		final MavenArtifact artifact = myTreeUserObject.getArtifact();
-
-		String classifier = artifact.getClassifier();
-		if (classifier != null) {
-			classifier = classifier + " - ";
-		} else {
-			classifier = "";
-		}
-		MavenArtifactNode mavenArtifactNode = myTreeUserObject.getMavenArtifactNode();
-		boolean omitted = Utils.isOmitted(mavenArtifactNode);
-		boolean conflict_AlternativeMethod = Utils.isConflictAlternativeMethod(mavenArtifactNode);
-		boolean error = omitted || conflict_AlternativeMethod;
-		boolean added = "ADDED".equals(mavenArtifactNode.getState().name());
-		String currentVersion = artifact.getVersion();
-
+		// everything but the error colors, which can be changed in settings, is precomputed
+		TreeNodeDescriptor descriptor = myTreeUserObject.getDescriptor();
+		boolean error = descriptor.isError();
 		if (showSize.isSelected()) {
-			Utils.appendSize(this, myTreeUserObject.getSize(), myTreeUserObject.getTotalSize());
+			append(myTreeUserObject.getSizeText(), GuiForm.SIZE_ATTRIBUTES);
 		}
-		ApplicationSettings state = MavenHelperApplicationService.getInstance().getState();
 		if (myTreeUserObject.showOnlyVersion) {
 			SimpleTextAttributes attributes = SimpleTextAttributes.REGULAR_ATTRIBUTES;
-			SimpleTextAttributes versionAttributes = SimpleTextAttributes.REGULAR_ATTRIBUTES;
-			if (added) {
-				versionAttributes = SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES;
-			}
-
+			SimpleTextAttributes versionAttributes = descriptor.added ? SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES : SimpleTextAttributes.REGULAR_ATTRIBUTES;
 			if (error) {
-				attributes = state.getErrorAttributes();
-				versionAttributes = state.getErrorAttributes();
+				attributes = getErrorAttributes();
+				versionAttributes = attributes;
 			}
-			append(currentVersion, versionAttributes);
-			append(" [" + classifier + artifact.getScope() + "]", attributes);
+			append(descriptor.version, versionAttributes);
+			append(descriptor.scopeSuffix, attributes);
 
-			checkForBug(myTreeUserObject);
-			if (!omitted && conflict_AlternativeMethod) {
-				conflict_AlternativeMethod(mavenArtifactNode, attributes, getConflictWinner(mavenArtifactNode));
+			checkForBug(descriptor);
+			if (!descriptor.omitted && descriptor.conflictAlternativeMethod) {
+				conflict_AlternativeMethod(descriptor, attributes);
 			}
 		} else {
 			SimpleTextAttributes attributes;
 			SimpleTextAttributes boldAttributes;
 			if (error) {
+				ApplicationSettings state = MavenHelperApplicationService.getInstance().getState();
 				attributes = state.getErrorAttributes();
 				boldAttributes = state.getErrorBoldAttributes();
-			} else if ("test".equals(myTreeUserObject.getArtifact().getScope())) {
-				attributes = testAttributes;
-				boldAttributes = testBoldAttributes;
-			} else if ("provided".equals(myTreeUserObject.getArtifact().getScope())) {
-				attributes = providedAttributes;
-				boldAttributes = providedBoldAttributes;
-			} else if ("runtime".equals(myTreeUserObject.getArtifact().getScope())) {
-				attributes = runtimeAttributes;
-				boldAttributes = runtimeBoldAttributes;
-			} else if ("compile".equals(myTreeUserObject.getArtifact().getScope())) {
-				attributes = SimpleTextAttributes.REGULAR_ATTRIBUTES;
-				boldAttributes = SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES;
 			} else {
-				attributes = SimpleTextAttributes.GRAYED_ATTRIBUTES;
-				boldAttributes = SimpleTextAttributes.GRAYED_BOLD_ATTRIBUTES;
+				switch (descriptor.scope) {
+					case TEST -> {
+						attributes = testAttributes;
+						boldAttributes = testBoldAttributes;
+					}
+					case PROVIDED -> {
+						attributes = providedAttributes;
+						boldAttributes = providedBoldAttributes;
+					}
+					case RUNTIME -> {
+						attributes = runtimeAttributes;
+						boldAttributes = runtimeBoldAttributes;
+					}
+					case COMPILE -> {
+						attributes = SimpleTextAttributes.REGULAR_ATTRIBUTES;
+						boldAttributes = SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES;
+					}
+					default -> {
+						attributes = SimpleTextAttributes.GRAYED_ATTRIBUTES;
+						boldAttributes = SimpleTextAttributes.GRAYED_BOLD_ATTRIBUTES;
+					}
+				}
 			}
 
 			if (showGroupId.isSelected()) {
-				append(artifact.getGroupId() + " : ", attributes);
+				append(descriptor.groupIdPrefix, attributes);
 			}
-			append(artifact.getArtifactId(), boldAttributes);
-			append(" : " + currentVersion, attributes);
-			append(" [" + classifier + artifact.getScope() + "]", attributes);
+			append(descriptor.artifactId, boldAttributes);
+			append(descriptor.versionSuffix, attributes);
+			append(descriptor.scopeSuffix, attributes);
 
 			if (error) {
-				String winner = getConflictWinner(mavenArtifactNode);
-
-				if (omitted) {
-					append(" (omitted for conflict with: " + winner + ")", attributes);
-					checkForBug(myTreeUserObject);
+				if (descriptor.omitted) {
+					append(descriptor.conflictNote, attributes);
+					checkForBug(descriptor);
 				} else {//conflict_AlternativeMethod
-					conflict_AlternativeMethod(mavenArtifactNode, attributes, winner);
+					conflict_AlternativeMethod(descriptor, attributes);
 				}
 			}
 
@@ -144,38 +129,18 @@ public class TreeRenderer extends ColoredTreeCellRenderer {
 
 	}
 
-	private void conflict_AlternativeMethod(MavenArtifactNode mavenArtifactNode, SimpleTextAttributes attributes, String realArtifact) {
-		append(" (artifact state: " + mavenArtifactNode.getState() + ", conflict with: " + realArtifact, attributes);
-		append(")", attributes);
-		append(" - 2)", ERROR_BOLD);
-		guiForm.falsePositive.setVisible(true);
+	private static SimpleTextAttributes getErrorAttributes() {
+		return MavenHelperApplicationService.getInstance().getState().getErrorAttributes();
 	}
 
-	@Nullable
-	private String getConflictWinner(MavenArtifactNode mavenArtifactNode) {
-		String realArtifact = "null";
-		MavenArtifact conflictWinner = mavenArtifactNode.getRelatedArtifact();
-
-		if (conflictWinner != null) {
-			String realVersion;
-			String realClassifier;
-			realVersion = conflictWinner.getVersion();
-			realClassifier = conflictWinner.getClassifier();
-			String scope = conflictWinner.getScope();
-			if (realClassifier != null) {
-				realClassifier = realClassifier + " - ";
-			} else {
-				realClassifier = "";
-			}
-			realArtifact = realVersion;
-//			realArtifact = realVersion + " [" + realClassifier + scope + "]";
-		}
-		return realArtifact;
+	private void conflict_AlternativeMethod(TreeNodeDescriptor descriptor, SimpleTextAttributes attributes) {
+		append(descriptor.conflictNote, attributes);
+		append(" - 2)", ERROR_BOLD);
+		guiForm.falsePositive.setVisible(true);
 	}
 
-	private void checkForBug(MyTreeUserObject myTreeUserObject) {
-		MavenArtifactNode mavenArtifactNode = myTreeUserObject.getMavenArtifactNode();
-		if (mavenArtifactNode.getState() == MavenArtifactState.CONFLICT && !Utils.isVersionMismatch(myTreeUserObject.getMavenArtifactNode())) {
+	private void checkForBug(TreeNodeDescriptor descriptor) {
+		if (descriptor.intellijBug) {
 			append(" - 1)", ERROR_BOLD);
 			guiForm.intellijBugLabel.setVisible(true);
 		}
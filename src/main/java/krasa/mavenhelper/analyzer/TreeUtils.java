@@ -46,6 +46,13 @@ public class TreeUtils {
 			}
 		}
 		Collections.reverse(path);
+		selectRows(leftTree, root, path);
+	}
+
+	/**
+	 * @param path nodes from a top level dependency down to the node to select
+	 */
+	public static void selectRows(MyHighlightingTree leftTree, MyDefaultMutableTreeNode root, List<MavenArtifactNode> path) {
 		MyDefaultMutableTreeNode matchingNode = getMatchingNode(path, root, 0);
 		if (matchingNode != null && matchingNode != root) {
 			leftTree.getSelectionModel().addSelectionPath(new TreePath(matchingNode.getPath()));
@@ -83,7 +90,9 @@ public class TreeUtils {
 			MyDefaultMutableTreeNode currentNode = children1.nextElement();
 			MyTreeUserObject userObject = currentNode.getUserObject();
 			MyTreeUserObject userObject1 = old.getUserObject();
-			if (userObject.getMavenArtifactNode().equals(userObject1.getMavenArtifactNode())) {
+			// after a re-resolve the nodes are new instances, fall back to the artifact coordinates
+			if (userObject.getMavenArtifactNode().equals(userObject1.getMavenArtifactNode())
+				|| userObject.getArtifact().equals(userObject1.getArtifact())) {
 				return getMatchingNode(path, currentNode, i + 1);
 			}
 		}
@@ -95,8 +104,8 @@ public class TreeUtils {
 		Collections.sort(value, new Comparator<MavenArtifactNode>() {
 			@Override
 			public int compare(MavenArtifactNode o1, MavenArtifactNode o2) {
-				DefaultArtifactVersion version = new DefaultArtifactVersion(o1.getArtifact().getVersion());
-				DefaultArtifactVersion version1 = new DefaultArtifactVersion(o2.getArtifact().getVersion());
+				ComparableVersion version = ComparableVersion.parse(o1.getArtifact().getVersion());
+				ComparableVersion version1 = ComparableVersion.parse(o2.getArtifact().getVersion());
 				return version1.compareTo(version);
 			}
 		});
@@ -60,14 +60,16 @@ public final class UIFormEditor extends UserDataHolderBase implements /* Navigat
 		// initProjectsTree() (heavy cache deserialization). Instead, listen for Maven resolve events and use a fast-path
 		// lookup only when Maven is already initialized.
 		MyProjectService service = MyProjectService.getInstance(project);
-		MyProjectService.MyEventListener listener = (projectWithChanges, nativeMavenProject) -> {
-			MavenProject resolved = projectWithChanges.getFirst();
-			if (resolved != null && file.equals(resolved.getFile())) {
-				initEditor(resolved);
+		MyProjectService.MyEventListener listener = changeset -> {
+			for (MyProjectService.ResolvedProject resolved : changeset.projects()) {
+				if (file.equals(resolved.mavenProject().getFile())) {
+					initEditor(resolved.mavenProject());
+					return;
+				}
 			}
 		};
 		myListener = listener;
-		service.register(listener);
+		service.register(file, listener);
 
 		ApplicationManager.getApplication().executeOnPooledThread(() -> {
 			MavenProject mavenProject = null;
@@ -5,11 +5,6 @@ import com.intellij.ui.SimpleColoredComponent;
 import org.jetbrains.idea.maven.model.MavenArtifactNode;
 import org.jetbrains.idea.maven.model.MavenArtifactState;
 
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.text.NumberFormat;
-import java.util.Locale;
-
 public class Utils {
 	private static final Logger LOG = com.intellij.openapi.diagnostic.Logger.getInstance(Utils.class);
 
@@ -32,14 +27,38 @@ public class Utils {
 
 
 	public static void appendSize(SimpleColoredComponent r, long size, long totalSize) {
-		r.append(formatThousands(totalSize) + " KB (" + formatThousands(size) + " KB) - ", GuiForm.SIZE_ATTRIBUTES);
+		r.append(formatSize(size, totalSize), GuiForm.SIZE_ATTRIBUTES);
+	}
+
+	static String formatSize(long size, long totalSize) {
+		return formatThousands(totalSize) + " KB (" + formatThousands(size) + " KB) - ";
+	}
+
+	public static void appendRetainedSize(SimpleColoredComponent r, long retainedSize) {
+		r.append(formatThousands(retainedSize) + " KB retained - ", GuiForm.SIZE_ATTRIBUTES);
+	}
+
+	public static void appendJarMetrics(SimpleColoredComponent r, int classCount, long uncompressedSize, long duplicateClassSize) {
+		r.append(formatThousands(classCount) + " classes, " + formatThousands(uncompressedSize) + " KB uncompressed, "
+			+ formatThousands(duplicateClassSize) + " KB duplicate - ", GuiForm.SIZE_ATTRIBUTES);
 	}
 
+	/**
+	 * Groups digits by three with a space, like a US DecimalFormat with a space separator, without creating one per call.
+	 */
 	static String formatThousands(long l) {
-		DecimalFormat formatter = (DecimalFormat) NumberFormat.getInstance(Locale.US);
-		DecimalFormatSymbols symbols = formatter.getDecimalFormatSymbols();
-		symbols.setGroupingSeparator(' ');
-		formatter.setDecimalFormatSymbols(symbols);
-		return formatter.format(l);
+		String digits = Long.toString(l);
+		int start = l < 0 ? 1 : 0;
+		int length = digits.length() - start;
+		if (length <= 3) {
+			return digits;
+		}
+		StringBuilder sb = new StringBuilder(digits.length() + (length - 1) / 3);
+		int firstGroup = length % 3 == 0 ? 3 : length % 3;
+		sb.append(digits, 0, start + firstGroup);
+		for (int i = start + firstGroup; i < digits.length(); i += 3) {
+			sb.append(' ').append(digits, i, i + 3);
+		}
+		return sb.toString();
 	}
 }
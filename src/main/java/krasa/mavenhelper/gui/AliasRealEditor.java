@@ -96,9 +96,28 @@ public class AliasRealEditor extends DialogWrapper {
         if (ALIAS.stream().anyMatch(command::contains)) {
             return true;
         }
-        Matcher matcher = REGEX.matcher(command);
-        if (matcher.find()) {
-            return true;
+        return containsPlaceholder(command);
+    }
+
+    /**
+     * Same as {@code REGEX.matcher(command).find()} without the regex engine, called for every goal run.
+     */
+    private static boolean containsPlaceholder(String command) {
+        int start = command.indexOf('$');
+        while (start >= 0) {
+            for (int i = start + 1; ; i++) {
+                if (i == command.length()) {
+                    return false;
+                }
+                char c = command.charAt(i);
+                if (c == '$') {
+                    return true;
+                }
+                if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                    start = command.indexOf('$', i + 1);
+                    break;
+                }
+            }
         }
         return false;
     }
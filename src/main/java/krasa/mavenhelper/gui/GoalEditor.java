@@ -104,7 +104,7 @@ public class GoalEditor extends DialogWrapper {
 				MavenProject mavenProject = Utils.getMavenProject(dataContext);
 				if (mavenProject != null && project != null) {
 					List<ListItem> listItems = new ArrayList<>();
-					MavenPluginMojoCacheService cache = MavenPluginMojoCacheService.getInstance(project);
+					MavenPluginMojoCacheService cache = MavenPluginMojoCacheService.getInstance();
 					for (MavenPlugin mavenPlugin : mavenProject.getDeclaredPlugins()) {
 						List<String> mojos = cache.getMojoDisplayNames(mavenProject, mavenPlugin);
 						boolean first = true;
@@ -0,0 +1,502 @@
+package krasa.mavenhelper.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Aliases and macros compiled for expanding a command line in one leftmost-longest pass.
+ * <p>
+ * The result is the same as applying the aliases one after another in their order and then the macros. An alias value
+ * is expanded at compile time by the aliases following it, macros are resolved inline. That is only the same when no
+ * name depends on the order, so alias sets with {@link #validate warnings} are replayed sequentially. Occurrences
+ * which the sequential replace would handle differently are detected while scanning and fall back to the replay too:
+ * overlapping names, e.g. {@code $a$b$}, and values which could form another name together with the text around them.
+ */
+public final class AliasEngine {
+	private final List<Alias> aliases;
+	private final String[] macros;
+	/**
+	 * null if the aliases are replayed sequentially
+	 */
+	@Nullable
+	private final Automaton automaton;
+	/**
+	 * per pattern of the automaton, the aliases followed by the macros
+	 */
+	private final Replacement[] replacements;
+	/**
+	 * per alias pattern, its expanded value could form a later name together with the surrounding text
+	 */
+	private final boolean[] unsafe;
+	/**
+	 * per macro, the last value which cannot form a later macro, shared by threads without synchronization
+	 */
+	private final String[] lastSafeValues;
+
+	private AliasEngine(@NotNull List<Alias> aliases, @NotNull String[] macros, @Nullable Automaton automaton,
+						@NotNull Replacement[] replacements, @NotNull boolean[] unsafe) {
+		this.aliases = aliases;
+		this.macros = macros;
+		this.automaton = automaton;
+		this.replacements = replacements;
+		this.unsafe = unsafe;
+		this.lastSafeValues = new String[macros.length];
+	}
+
+	/**
+	 * @param macros names resolved by {@link #expand} after the aliases, in this order
+	 */
+	@NotNull
+	public static AliasEngine compile(@NotNull List<Alias> aliases, @NotNull Collection<String> macros) {
+		List<Alias> steps = new ArrayList<>();
+		for (Alias alias : aliases) {
+			// Alias#applyTo ignores these
+			if (alias.getFrom() != null && alias.getTo() != null) {
+				steps.add(new Alias(alias.getFrom(), alias.getTo()));
+			}
+		}
+		String[] macroNames = macros.toArray(new String[0]);
+		if (!validate(aliases, macros).isEmpty() || overlapEachOther(macroNames)) {
+			return new AliasEngine(steps, macroNames, null, new Replacement[0], new boolean[0]);
+		}
+
+		int aliasCount = steps.size();
+		String[] names = new String[aliasCount + macroNames.length];
+		for (int i = 0; i < aliasCount; i++) {
+			names[i] = steps.get(i).getFrom();
+		}
+		System.arraycopy(macroNames, 0, names, aliasCount, macroNames.length);
+
+		Replacement[] replacements = new Replacement[names.length];
+		boolean[] unsafe = new boolean[aliasCount];
+		// backwards, so that the aliases a value is expanded by are done
+		for (int i = aliasCount - 1; i >= 0; i--) {
+			String value = steps.get(i).getTo();
+			boolean valueUnsafe = false;
+			for (int later = i + 1; later < names.length; later++) {
+				valueUnsafe |= crossesBoundary(value, names[later]);
+			}
+			for (int later = i + 1; later < aliasCount; later++) {
+				if (value.contains(names[later])) {
+					valueUnsafe |= unsafe[later];
+					value = value.replace(names[later], steps.get(later).getTo());
+				}
+			}
+			unsafe[i] = valueUnsafe;
+			replacements[i] = Replacement.of(value, macroNames);
+		}
+		for (int macro = 0; macro < macroNames.length; macro++) {
+			replacements[aliasCount + macro] = new Replacement(new String[]{"", ""}, new int[]{macro});
+		}
+		return new AliasEngine(steps, macroNames, new Automaton(names), replacements, unsafe);
+	}
+
+	/**
+	 * @return false if the aliases have {@link #validate warnings} and every command line is replayed sequentially
+	 */
+	boolean isSinglePass() {
+		return automaton != null;
+	}
+
+	/**
+	 * @param macroResolver called at most once per macro, only when it occurs; null keeps the macro name
+	 */
+	@NotNull
+	public String expand(@NotNull String commandLine, @NotNull Function<String, String> macroResolver) {
+		String[] resolved = new String[macros.length];
+		if (automaton == null) {
+			return replay(commandLine, macroResolver, resolved);
+		}
+		StringBuilder sb = null;
+		int copied = 0;
+		int state = 0;
+		int[] nextFirstChars = automaton.newSkipState();
+		for (int i = 0; i < commandLine.length(); i++) {
+			if (state == 0) {
+				i = automaton.skipToFirstChar(commandLine, i, nextFirstChars);
+				if (i == commandLine.length()) {
+					break;
+				}
+			}
+			state = automaton.next(state, commandLine.charAt(i));
+			int pattern = automaton.output[state];
+			if (pattern == -1) {
+				continue;
+			}
+			int start = i + 1 - automaton.lengths[pattern];
+			if (start < copied || (pattern < unsafe.length && unsafe[pattern])) {
+				return replay(commandLine, macroResolver, resolved);
+			}
+			if (sb == null) {
+				sb = new StringBuilder(commandLine.length() + 32);
+			}
+			sb.append(commandLine, copied, start);
+			Replacement replacement = replacements[pattern];
+			sb.append(replacement.parts[0]);
+			for (int j = 0; j < replacement.macros.length; j++) {
+				String value = resolve(replacement.macros[j], macroResolver, resolved);
+				if (value == null) {
+					return replay(commandLine, macroResolver, resolved);
+				}
+				sb.append(value).append(replacement.parts[j + 1]);
+			}
+			copied = i + 1;
+		}
+		return sb == null ? commandLine : sb.append(commandLine, copied, commandLine.length()).toString();
+	}
+
+	/**
+	 * @return the value of the macro, null if it could form a later macro and the command line must be replayed
+	 */
+	@Nullable
+	private String resolve(int macro, @NotNull Function<String, String> macroResolver, @NotNull String[] resolved) {
+		if (resolved[macro] != null) {
+			return resolved[macro];
+		}
+		String value = macroResolver.apply(macros[macro]);
+		resolved[macro] = value != null ? value : macros[macro];
+		if (resolved[macro].equals(lastSafeValues[macro])) {
+			return resolved[macro];
+		}
+		for (int later = macro + 1; later < macros.length; later++) {
+			if (containsOrCrosses(resolved[macro], macros[later])) {
+				return null;
+			}
+		}
+		// the same class or module is usually expanded again and again
+		lastSafeValues[macro] = resolved[macro];
+		return resolved[macro];
+	}
+
+	/**
+	 * Applies the aliases one after another and then the macros, as they always were.
+	 */
+	@NotNull
+	private String replay(@NotNull String commandLine, @NotNull Function<String, String> macroResolver, @NotNull String[] resolved) {
+		String s = commandLine;
+		for (Alias alias : aliases) {
+			s = alias.applyTo(s);
+		}
+		for (int macro = 0; macro < macros.length; macro++) {
+			if (s.contains(macros[macro])) {
+				if (resolved[macro] == null) {
+					String value = macroResolver.apply(macros[macro]);
+					resolved[macro] = value != null ? value : macros[macro];
+				}
+				s = s.replace(macros[macro], resolved[macro]);
+			}
+		}
+		return s;
+	}
+
+	private static boolean containsOrCrosses(@NotNull String value, @NotNull String name) {
+		return (value.length() >= name.length() && value.contains(name)) || crossesBoundary(value, name);
+	}
+
+	/**
+	 * @return true if the name could occur across the start or end of the value inserted into a text
+	 */
+	private static boolean crossesBoundary(@NotNull String value, @NotNull String name) {
+		if (name.length() > value.length() && name.contains(value)) {
+			return true;
+		}
+		for (int length = 1; length < name.length() && length <= value.length(); length++) {
+			if ((value.charAt(value.length() - length) == name.charAt(0) && value.regionMatches(value.length() - length, name, 0, length))
+				|| (value.charAt(0) == name.charAt(name.length() - length) && value.regionMatches(0, name, name.length() - length, length))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean overlapEachOther(@NotNull String[] names) {
+		for (int i = 0; i < names.length; i++) {
+			for (int j = 0; j < names.length; j++) {
+				if (i != j && (names[i].isEmpty() || names[j].contains(names[i]) || crossesBoundary(names[i], names[j]))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Finds aliases whose expansion depends on their order or which hide macros: empty names, duplicate names, names
+	 * contained in other names or macros and aliases expanding to each other. These expand the same as they always
+	 * did, so they are only warnings. An alias using its own name in the value is expanded once and is fine.
+	 *
+	 * @return human readable problems, empty if none
+	 */
+	@NotNull
+	public static List<String> validate(@NotNull List<Alias> aliases, @NotNull Collection<String> macros) {
+		List<String> problems = new ArrayList<>();
+		List<Alias> named = new ArrayList<>();
+		for (Alias alias : aliases) {
+			if (isEmpty(alias.getFrom())) {
+				problems.add("Alias with an empty name: '" + alias.getTo() + "'");
+			} else {
+				named.add(alias);
+			}
+		}
+		for (int i = 0; i < named.size(); i++) {
+			String from = named.get(i).getFrom();
+			for (int j = 0; j < named.size(); j++) {
+				String other = named.get(j).getFrom();
+				if (i == j) {
+					continue;
+				}
+				if (from.equals(other)) {
+					if (i < j) {
+						problems.add("Duplicate alias '" + from + "'");
+					}
+				} else if (other.contains(from)) {
+					problems.add("Alias '" + from + "' overlaps with '" + other + "'");
+				}
+			}
+			for (String macro : macros) {
+				if (macro.contains(from) || from.contains(macro)) {
+					problems.add("Alias '" + from + "' overlaps with macro '" + macro + "'");
+				}
+			}
+		}
+
+		// alias -> other aliases occurring in its value
+		int n = named.size();
+		List<List<Integer>> edges = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			List<Integer> targets = new ArrayList<>();
+			String to = named.get(i).getTo();
+			if (to != null) {
+				for (int j = 0; j < n; j++) {
+					if (i != j && to.contains(named.get(j).getFrom())) {
+						targets.add(j);
+					}
+				}
+			}
+			edges.add(targets);
+		}
+		int[] state = new int[n];
+		Deque<Integer> path = new ArrayDeque<>();
+		for (int i = 0; i < n; i++) {
+			if (state[i] == 0) {
+				findCycle(i, edges, state, path, named, problems);
+			}
+		}
+		// duplicate aliases report the same problems
+		return new ArrayList<>(new LinkedHashSet<>(problems));
+	}
+
+	/**
+	 * depth-first search, state 0 = new, 1 = on the current path, 2 = done
+	 */
+	private static void findCycle(int node, List<List<Integer>> edges, int[] state, Deque<Integer> path, List<Alias> aliases, List<String> problems) {
+		state[node] = 1;
+		path.addLast(node);
+		for (int target : edges.get(node)) {
+			if (state[target] == 1) {
+				StringBuilder cycle = new StringBuilder();
+				boolean inCycle = false;
+				for (int element : path) {
+					inCycle |= element == target;
+					if (inCycle) {
+						cycle.append('\'').append(aliases.get(element).getFrom()).append("' -> ");
+					}
+				}
+				cycle.append('\'').append(aliases.get(target).getFrom()).append('\'');
+				problems.add("Cyclic aliases " + cycle);
+			} else if (state[target] == 0) {
+				findCycle(target, edges, state, path, aliases, problems);
+			}
+		}
+		path.removeLast();
+		state[node] = 2;
+	}
+
+	private static boolean isEmpty(@Nullable String s) {
+		return s == null || s.isEmpty();
+	}
+
+	/**
+	 * An expanded value split around the macros it contains, {@code parts} has one element more than {@code macros}.
+	 */
+	private record Replacement(@NotNull String[] parts, @NotNull int[] macros) {
+		static Replacement of(@NotNull String value, @NotNull String[] macroNames) {
+			List<String> parts = new ArrayList<>();
+			List<Integer> macros = new ArrayList<>();
+			int partStart = 0;
+			for (int i = 0; i < value.length(); ) {
+				int macro = macroAt(value, i, macroNames);
+				if (macro == -1) {
+					i++;
+					continue;
+				}
+				parts.add(value.substring(partStart, i));
+				macros.add(macro);
+				i += macroNames[macro].length();
+				partStart = i;
+			}
+			parts.add(value.substring(partStart));
+			return new Replacement(parts.toArray(new String[0]), macros.stream().mapToInt(Integer::intValue).toArray());
+		}
+
+		private static int macroAt(@NotNull String value, int offset, @NotNull String[] macroNames) {
+			for (int macro = 0; macro < macroNames.length; macro++) {
+				if (value.startsWith(macroNames[macro], offset)) {
+					return macro;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * Aho-Corasick automaton of names none of which contains another, with the fail links folded into a transition
+	 * table indexed by state and character class.
+	 */
+	private static final class Automaton {
+		private static final int MAX_SKIP_CHARS = 4;
+		/**
+		 * class of ASCII characters, 0 for characters not in any name
+		 */
+		private final int[] asciiClasses = new int[128];
+		/**
+		 * sorted non-ASCII characters of the names, their class is the index + 1
+		 */
+		private final char[] otherChars;
+		private final int asciiCount;
+		private final int classCount;
+		private final int[] transitions;
+		/**
+		 * per state the name ending in it, -1 if none
+		 */
+		private final int[] output;
+		private final int[] lengths;
+		private final char[] firstChars;
+
+		private Automaton(@NotNull String[] names) {
+			StringBuilder first = new StringBuilder();
+			StringBuilder others = new StringBuilder();
+			int asciiCount = 0;
+			int stateCount = 1;
+			lengths = new int[names.length];
+			for (int p = 0; p < names.length; p++) {
+				lengths[p] = names[p].length();
+				if (first.indexOf(names[p].substring(0, 1)) == -1) {
+					first.append(names[p].charAt(0));
+				}
+				stateCount += names[p].length();
+				for (int i = 0; i < names[p].length(); i++) {
+					char c = names[p].charAt(i);
+					if (c < 128) {
+						if (asciiClasses[c] == 0) {
+							asciiClasses[c] = ++asciiCount;
+						}
+					} else if (others.indexOf(String.valueOf(c)) == -1) {
+						others.append(c);
+					}
+				}
+			}
+			this.asciiCount = asciiCount;
+			firstChars = first.toString().toCharArray();
+			otherChars = others.toString().toCharArray();
+			Arrays.sort(otherChars);
+			classCount = 1 + asciiCount + otherChars.length;
+
+			int[] goTo = new int[stateCount * classCount];
+			Arrays.fill(goTo, -1);
+			output = new int[stateCount];
+			Arrays.fill(output, -1);
+			int states = 1;
+			for (int p = 0; p < names.length; p++) {
+				int state = 0;
+				for (int i = 0; i < names[p].length(); i++) {
+					int index = state * classCount + classOf(names[p].charAt(i));
+					if (goTo[index] == -1) {
+						goTo[index] = states++;
+					}
+					state = goTo[index];
+				}
+				output[state] = p;
+			}
+
+			// breadth first, so that the transitions of the fail state are complete
+			transitions = new int[states * classCount];
+			int[] fail = new int[states];
+			int[] queue = new int[states];
+			int head = 0;
+			int tail = 0;
+			for (int c = 0; c < classCount; c++) {
+				int child = goTo[c];
+				transitions[c] = child == -1 ? 0 : child;
+				if (child != -1) {
+					queue[tail++] = child;
+				}
+			}
+			while (head < tail) {
+				int state = queue[head++];
+				if (output[state] == -1) {
+					output[state] = output[fail[state]];
+				}
+				for (int c = 0; c < classCount; c++) {
+					int child = goTo[state * classCount + c];
+					if (child == -1) {
+						transitions[state * classCount + c] = transitions[fail[state] * classCount + c];
+					} else {
+						transitions[state * classCount + c] = child;
+						fail[child] = transitions[fail[state] * classCount + c];
+						queue[tail++] = child;
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return per first character of the names its next index in the text, used by {@link #skipToFirstChar}
+		 */
+		@Nullable
+		int[] newSkipState() {
+			if (firstChars.length > MAX_SKIP_CHARS) {
+				return null;
+			}
+			int[] nextFirstChars = new int[firstChars.length];
+			Arrays.fill(nextFirstChars, -1);
+			return nextFirstChars;
+		}
+
+		/**
+		 * Skips text which cannot start a name with {@link String#indexOf}, much faster than the transitions when
+		 * names start with few characters, like {@code $} and {@code <}.
+		 *
+		 * @return index of the next first character at or after {@code from}, the text length if none
+		 */
+		int skipToFirstChar(@NotNull String text, int from, @Nullable int[] nextFirstChars) {
+			if (nextFirstChars == null) {
+				return from;
+			}
+			int next = text.length();
+			for (int i = 0; i < firstChars.length; i++) {
+				if (nextFirstChars[i] < from) {
+					int index = text.indexOf(firstChars[i], from);
+					nextFirstChars[i] = index == -1 ? Integer.MAX_VALUE : index;
+				}
+				next = Math.min(next, nextFirstChars[i]);
+			}
+			return next;
+		}
+
+		private int classOf(char c) {
+			if (c < 128) {
+				return asciiClasses[c];
+			}
+			int i = Arrays.binarySearch(otherChars, c);
+			return i < 0 ? 0 : asciiCount + 1 + i;
+		}
+
+		int next(int state, char c) {
+			return transitions[state * classCount + classOf(c)];
+		}
+	}
+}
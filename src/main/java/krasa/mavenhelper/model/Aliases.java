@@ -1,5 +1,7 @@
 package krasa.mavenhelper.model;
 
+import com.intellij.util.xmlb.annotations.Transient;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -8,6 +10,10 @@ import java.util.Objects;
 
 public class Aliases extends DomainObject {
 	private List<Alias> aliases = new ArrayList<Alias>();
+	/**
+	 * compiled on first use, reset by every modification
+	 */
+	private transient volatile AliasEngine engine;
 
 	public Aliases() {
 	}
@@ -22,9 +28,11 @@ public class Aliases extends DomainObject {
 
 	public void setAliases(List<Alias> aliases) {
 		this.aliases = aliases;
+		engine = null;
 	}
 
 	public boolean remove(Alias o) {
+		engine = null;
 		return aliases.remove(o);
 	}
 
@@ -32,11 +40,13 @@ public class Aliases extends DomainObject {
 		if (aliases.stream().anyMatch(alias -> alias.getFrom().equals(o.getFrom()))) {
 			return false;
 		}
+		engine = null;
 		return aliases.add(o);
 	}
 
 
 	public void add(String s, String to) {
+		engine = null;
 		aliases.add(new Alias(s, to));
 	}
 
@@ -45,14 +55,25 @@ public class Aliases extends DomainObject {
 	}
 
 	public boolean remove(Object goal) {
+		engine = null;
 		return aliases.remove(goal);
 	}
 
 	public String applyAliases(String commandLine) {
-		for (Alias alias : aliases) {
-			commandLine = alias.applyTo(commandLine);
+		return getEngine().expand(commandLine, macro -> null);
+	}
+
+	/**
+	 * Aliases together with {@link ApplicationSettings#RESOLVED_MACROS}.
+	 */
+	@Transient
+	public AliasEngine getEngine() {
+		AliasEngine result = engine;
+		if (result == null) {
+			result = AliasEngine.compile(aliases, ApplicationSettings.RESOLVED_MACROS);
+			engine = result;
 		}
-		return commandLine;
+		return result;
 	}
 
 	public Map<String, String> asMap() {
@@ -31,6 +31,13 @@ public class ApplicationSettings extends DomainObject implements Cloneable {
 	public static final String CURRENT_FULL_CLASS_WITH_METHOD_MACRO = "<<<CURRENT_FULL_CLASS_WITH_TEST_METHOD>>>";
 	public static final String MODULES = "<<<MODULES>>>";
 	public static final String VERSION = "<<<VERSION>>>";
+	/**
+	 * macros resolved when running a goal in this order, {@link #MODULES} and {@link #VERSION} are filled in by {@link AliasRealEditor}
+	 */
+	static final List<String> RESOLVED_MACROS = List.of(CURRENT_MODULE_NAME, CURRENT_CLASS_MACRO, CURRENT_FULL_CLASS_MACRO,
+		CURRENT_CLASS_WITH_METHOD_MACRO, CURRENT_FULL_CLASS_WITH_METHOD_MACRO);
+	public static final List<String> MACROS = List.of(CURRENT_MODULE_NAME, CURRENT_CLASS_MACRO, CURRENT_FULL_CLASS_MACRO,
+		CURRENT_CLASS_WITH_METHOD_MACRO, CURRENT_FULL_CLASS_WITH_METHOD_MACRO, MODULES, VERSION);
 
 	int version = 1;
 	private boolean useIgnoredPoms = false;
@@ -213,46 +220,49 @@ public class ApplicationSettings extends DomainObject implements Cloneable {
 	}
 
 	public String applyAliases(@NotNull String commandLine, @Nullable PsiFile psiFile, @Nullable ConfigurationContext fromContext, @NotNull MavenProjectInfo mavenProjectInfo, MavenProjectsManager manager) {
-		String s = aliases.applyAliases(commandLine);
-		if (s.contains(CURRENT_MODULE_NAME)) {
-			MavenProject mavenProject = mavenProjectInfo.getCurrentOrRootMavenProject();
-			if (mavenProject == null) {
-				throw new RuntimeException("maven project not found");
-			}
+		String s = aliases.getEngine().expand(commandLine, macro -> resolveMacro(macro, psiFile, fromContext, mavenProjectInfo));
+		return AliasRealEditor.alias(s, mavenProjectInfo, manager);
+	}
+
+	private static @NotNull String resolveMacro(@NotNull String macro, @Nullable PsiFile psiFile, @Nullable ConfigurationContext fromContext, @NotNull MavenProjectInfo mavenProjectInfo) {
+		switch (macro) {
+			case CURRENT_MODULE_NAME: {
+				MavenProject mavenProject = mavenProjectInfo.getCurrentOrRootMavenProject();
+				if (mavenProject == null) {
+					throw new RuntimeException("maven project not found");
+				}
 				MavenId mavenId = mavenProject.getMavenId();
 				String artifactId = mavenId.getArtifactId();
 				if (artifactId == null) {
 					artifactId = mavenProject.getDisplayName();
 				}
-
-				s = s.replace(CURRENT_MODULE_NAME, artifactId);
-		}
-		if (s.contains(CURRENT_CLASS_MACRO)) {
-			String name = fileNameWithoutExtension(psiFile.getName());
-			s = s.replace(CURRENT_CLASS_MACRO, name);
-		}
-		if (s.contains(CURRENT_FULL_CLASS_MACRO)) {
-			s = s.replace(CURRENT_FULL_CLASS_MACRO, Utils.getQualifiedName(psiFile));
-		}
-		if (s.contains(CURRENT_CLASS_WITH_METHOD_MACRO)) {
-			String to = Utils.NOT_RESOLVED;
-			if (null != fromContext) {
-				String className = null != fromContext.getConfiguration() ? fromContext.getConfiguration().getName() : Utils.NOT_RESOLVED;
-				to = className.replace(".", "#");
+				return artifactId;
 			}
-			if (Utils.NOT_RESOLVED.equals(to)) {
-				to = fileNameWithoutExtension(psiFile.getName());
+			case CURRENT_CLASS_MACRO:
+				return fileNameWithoutExtension(psiFile.getName());
+			case CURRENT_FULL_CLASS_MACRO:
+				return Utils.getQualifiedName(psiFile);
+			case CURRENT_CLASS_WITH_METHOD_MACRO: {
+				String to = Utils.NOT_RESOLVED;
+				if (null != fromContext) {
+					String className = null != fromContext.getConfiguration() ? fromContext.getConfiguration().getName() : Utils.NOT_RESOLVED;
+					to = className.replace(".", "#");
+				}
+				if (Utils.NOT_RESOLVED.equals(to)) {
+					to = fileNameWithoutExtension(psiFile.getName());
+				}
+				return to;
 			}
-			s = s.replace(CURRENT_CLASS_WITH_METHOD_MACRO, to);
-		}
-		if (s.contains(CURRENT_FULL_CLASS_WITH_METHOD_MACRO)) {
-			String to = Utils.getTestArgument(psiFile, fromContext);
-			if (Utils.NOT_RESOLVED.equals(to)) {
-				to = Utils.getQualifiedName(psiFile);
+			case CURRENT_FULL_CLASS_WITH_METHOD_MACRO: {
+				String to = Utils.getTestArgument(psiFile, fromContext);
+				if (Utils.NOT_RESOLVED.equals(to)) {
+					to = Utils.getQualifiedName(psiFile);
+				}
+				return to;
 			}
-			s = s.replace(CURRENT_FULL_CLASS_WITH_METHOD_MACRO, to);
+			default:
+				throw new IllegalArgumentException(macro);
 		}
-		return AliasRealEditor.alias(s, mavenProjectInfo, manager);
 	}
 
 	private static @NotNull String fileNameWithoutExtension(@NotNull String name) {
@@ -0,0 +1,141 @@
+package krasa.mavenhelper.analyzer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ComparableVersionTest {
+	private static final int MAX_COMPONENT = (1 << 19) - 1;
+
+	@Test
+	public void testQualifierOrdering() {
+		checkOrder("1.0-alpha", "1.0-beta", "1.0-milestone", "1.0-rc", "1.0-snapshot", "1.0", "1.0-sp");
+		checkOrder("1-SNAPSHOT", "1", "1-sp", "1.0.1-alpha", "1.0.1");
+		for (String version : List.of("1.0-alpha", "1.0-beta", "1.0-milestone", "1.0-rc", "1.0-snapshot", "1.0", "1.0-sp")) {
+			assertPacked(version);
+		}
+	}
+
+	@Test
+	public void testQualifierAliases() {
+		checkEqual("1.0-alpha", "1.0-ALPHA");
+		checkEqual("1.0-cr", "1.0-rc", "1.0-RC");
+		checkEqual("1.0", "1.0-ga", "1.0-final", "1", "1.0.0", "1-GA");
+	}
+
+	@Test
+	public void testComponentBoundaries() {
+		String max = String.valueOf(MAX_COMPONENT);
+		String overflow = String.valueOf(MAX_COMPONENT + 1);
+		assertPacked(max + "." + max + "." + max + "-sp");
+		assertNotPacked(overflow);
+		assertNotPacked("1." + overflow);
+		assertNotPacked("1.0." + overflow + "-rc");
+
+		checkOrder("0", "0.0.1", "1", "1." + max, "2", "2.0." + max, "2.0." + overflow, "2.1", max, overflow, overflow + ".1", "99999999999");
+		checkOrder("1.0." + max + "-snapshot", "1.0." + max, "1.0." + overflow + "-snapshot", "1.0." + overflow);
+	}
+
+	@Test
+	public void testNotPackedFallsBackToItems() {
+		assertNotPacked("1.0.0.1");
+		assertNotPacked("1.0-rc1");
+		assertNotPacked("1.0-foo");
+		assertNotPacked("1.0.x");
+		assertNotPacked("1-2");
+		assertNotPacked("");
+
+		checkOrder("1.0-rc", "1.0-rc1", "1.0-rc2", "1.0", "1.0-foo", "1.0.0.1", "1.0.1");
+		// a single letter is an alias only when followed by a digit
+		assertNotPacked("1.0-a");
+		checkOrder("1.0-alpha", "1.0-a1", "1.0", "1.0-a");
+		checkEqual("1.0.0.0", "1.0", "1");
+	}
+
+	@Test
+	public void testEqualsAndHashCode() {
+		checkEqual("2.3", "2.3.0", "2.3-ga", "2.3.0.0", "2.3-final");
+		assertNotEquals(ComparableVersion.parse("2.3"), ComparableVersion.parse("2.3-SNAPSHOT"));
+		assertNotEquals(ComparableVersion.parse("2.3"), ComparableVersion.parse("2.3.0.1"));
+	}
+
+	@Test
+	public void testPackedComparisonEqualsItemComparison() {
+		Random random = new Random(7);
+		List<String> versions = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			versions.add(randomVersion(random));
+		}
+		for (String a : versions) {
+			for (String b : versions) {
+				ComparableVersion packedA = new ComparableVersion(a);
+				ComparableVersion packedB = new ComparableVersion(b);
+				int expected = Integer.signum(ComparableVersion.withoutPacking(a).compareTo(ComparableVersion.withoutPacking(b)));
+
+				assertEquals(a + " vs " + b, expected, Integer.signum(packedA.compareTo(packedB)));
+				assertEquals(a + " vs " + b, expected, Integer.signum(packedA.compareTo(ComparableVersion.withoutPacking(b))));
+				assertEquals(a + " vs " + b, ComparableVersion.withoutPacking(a).equals(ComparableVersion.withoutPacking(b)), packedA.equals(packedB));
+				if (packedA.equals(packedB)) {
+					assertEquals(a + " vs " + b, packedA.hashCode(), packedB.hashCode());
+				}
+			}
+		}
+	}
+
+	private static String randomVersion(Random random) {
+		int[] interesting = {0, 1, 2, 9, 10, MAX_COMPONENT - 1, MAX_COMPONENT, MAX_COMPONENT + 1};
+		String[] qualifiers = {"", "", "-alpha", "-a", "-beta", "-milestone", "-rc", "-CR", "-SNAPSHOT", "-ga", "-final", "-sp", "-foo", "-rc1"};
+		StringBuilder sb = new StringBuilder();
+		int components = 1 + random.nextInt(4);
+		for (int i = 0; i < components; i++) {
+			if (i > 0) {
+				sb.append('.');
+			}
+			sb.append(interesting[random.nextInt(interesting.length)]);
+		}
+		return sb.append(qualifiers[random.nextInt(qualifiers.length)]).toString();
+	}
+
+	/**
+	 * every version is lower than the following ones, packed or not
+	 */
+	private static void checkOrder(String... versions) {
+		for (int i = 0; i < versions.length; i++) {
+			for (int j = 0; j < versions.length; j++) {
+				int expected = Integer.compare(i, j);
+				String message = versions[i] + " vs " + versions[j];
+				assertEquals(message, expected, Integer.signum(ComparableVersion.parse(versions[i]).compareTo(ComparableVersion.parse(versions[j]))));
+				assertEquals(message, expected, Integer.signum(ComparableVersion.withoutPacking(versions[i]).compareTo(ComparableVersion.parse(versions[j]))));
+				assertEquals(message, expected == 0, ComparableVersion.parse(versions[i]).equals(ComparableVersion.parse(versions[j])));
+			}
+		}
+	}
+
+	private static void checkEqual(String... versions) {
+		for (String a : versions) {
+			for (String b : versions) {
+				ComparableVersion versionA = ComparableVersion.parse(a);
+				ComparableVersion versionB = ComparableVersion.parse(b);
+				assertEquals(a + " vs " + b, 0, versionA.compareTo(versionB));
+				assertEquals(a + " vs " + b, versionA, versionB);
+				assertEquals(a + " vs " + b, versionA.hashCode(), versionB.hashCode());
+				assertEquals(a + " vs " + b, versionA, ComparableVersion.withoutPacking(b));
+				assertEquals(a + " vs " + b, versionA.hashCode(), ComparableVersion.withoutPacking(b).hashCode());
+			}
+		}
+	}
+
+	private static void assertPacked(String version) {
+		assertTrue(version, ComparableVersion.pack(version) != -1);
+	}
+
+	private static void assertNotPacked(String version) {
+		assertEquals(version, -1, ComparableVersion.pack(version));
+	}
+}
@@ -0,0 +1,155 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.testFramework.TestApplicationManager;
+import krasa.mavenhelper.fixture.DependencyTreeFixture;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoordinateSearchIndexTest {
+	private static final List<String> QUERIES = List.of(
+		"family1",
+		"FAMILY1",
+		"artifact-1 family0",
+		"family3 artifact-5 !artifact-55",
+		"family !artifact-1",
+		"!family1",
+		"-7",
+		"1",
+		"a 5",
+		"fam 12",
+		":",
+		"example.family2 : artifact-4",
+		"zzz",
+		"artifact-9999",
+		"scope:test artifact-2",
+		"!scope:test family2",
+		"scope:");
+
+	private static DependencyGraph graph;
+	private static CoordinateSearchIndex index;
+
+	@BeforeClass
+	public static void setUp() {
+		// graphs with more than one root are built concurrently
+		TestApplicationManager.getInstance();
+		graph = DependencyGraph.build(DependencyTreeFixture.builder()
+			.nodeCount(3_000)
+			.coordinateCount(600)
+			.testScopeRatio(0.3)
+			.seed(9)
+			.build()
+			.getRoots());
+		index = CoordinateSearchIndex.build(graph);
+	}
+
+	@Test
+	public void testSameCoordinatesAsFullScan() {
+		for (String text : QUERIES) {
+			SearchQuery query = SearchQuery.parse(text);
+
+			assertEquals(text, scan(query), index.findCoordinates(query, null));
+		}
+	}
+
+	@Test
+	public void testSameNodesAsFullScan() {
+		for (String text : QUERIES) {
+			SearchQuery query = SearchQuery.parse(text);
+			BitSet coordinates = index.findCoordinates(query, null);
+			BitSet expected = new BitSet();
+			BitSet actual = new BitSet();
+			for (int node = 0; node < graph.getNodeCount(); node++) {
+				if (!query.matchesScope(graph.getNode(node).getArtifact().getScope())) {
+					continue;
+				}
+				if (query.matchesKey(graph.getCoordinateKey(graph.getCoordinate(node)).toLowerCase(Locale.ROOT))) {
+					expected.set(node);
+				}
+				if (coordinates.get(graph.getCoordinate(node))) {
+					actual.set(node);
+				}
+			}
+
+			assertEquals(text, expected, actual);
+		}
+	}
+
+	@Test
+	public void testQueriesMatchSomething() {
+		// guards the comparisons above against a fixture where every query matches nothing
+		assertFalse(index.findCoordinates(SearchQuery.parse("family1"), null).isEmpty());
+		assertFalse(index.findCoordinates(SearchQuery.parse("a 5"), null).isEmpty());
+		assertFalse(index.findCoordinates(SearchQuery.parse("!family1"), null).isEmpty());
+		assertTrue(index.findCoordinates(SearchQuery.parse("zzz"), null).isEmpty());
+		assertEquals(graph.getCoordinateCount(), index.findCoordinates(SearchQuery.parse(":"), null).cardinality());
+	}
+
+	@Test
+	public void testRefinementSameAsFullScan() {
+		// typed one character at a time, as GuiForm refines the previous result
+		String typed = "family1 artifact-2 !artifact-25";
+		SearchQuery previous = SearchQuery.EMPTY;
+		BitSet previousResult = null;
+		int refinements = 0;
+		for (int i = 1; i <= typed.length(); i++) {
+			SearchQuery query = SearchQuery.parse(typed.substring(0, i));
+			boolean refinement = query.isRefinementOf(previous);
+			if (refinement) {
+				refinements++;
+			}
+			BitSet result = index.findCoordinates(query, refinement ? previousResult : null);
+
+			assertEquals(query.getText(), scan(query), result);
+			previous = query;
+			previousResult = result;
+		}
+		assertTrue(refinements > typed.length() / 2);
+	}
+
+	@Test
+	public void testEveryRefinementSameAsFullScan() {
+		int refinements = 0;
+		for (String previousText : QUERIES) {
+			SearchQuery previous = SearchQuery.parse(previousText);
+			for (String text : QUERIES) {
+				SearchQuery query = SearchQuery.parse(text);
+				if (query.isRefinementOf(previous)) {
+					refinements++;
+					assertEquals(text + " after " + previousText, scan(query), index.findCoordinates(query, scan(previous)));
+				}
+			}
+		}
+		assertTrue(refinements > QUERIES.size());
+	}
+
+	@Test
+	public void testShortenedQueryIsNotRefinement() {
+		SearchQuery query = SearchQuery.parse("family1");
+		SearchQuery previous = SearchQuery.parse("family12");
+
+		assertFalse(query.isRefinementOf(previous));
+		assertEquals(scan(query), index.findCoordinates(query, null));
+		assertTrue(scan(query).cardinality() > scan(previous).cardinality());
+	}
+
+	/**
+	 * the search before the index, every key checked
+	 */
+	private static BitSet scan(SearchQuery query) {
+		BitSet result = new BitSet();
+		for (int coordinate = 0; coordinate < graph.getCoordinateCount(); coordinate++) {
+			if (query.matchesKey(graph.getCoordinateKey(coordinate).toLowerCase(Locale.ROOT))) {
+				result.set(coordinate);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,250 @@
+package krasa.mavenhelper.analyzer;
+
+import com.intellij.testFramework.TestApplicationManager;
+import krasa.mavenhelper.fixture.DependencyTreeFixture;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jetbrains.idea.maven.model.MavenArtifactState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class RetainedSizeIndexTest {
+	private final List<MavenArtifactNode> roots = new ArrayList<>();
+	private final Map<MavenArtifactNode, List<MavenArtifactNode>> children = new LinkedHashMap<>();
+	private final Map<String, MavenArtifact> artifacts = new HashMap<>();
+	private Path repository;
+	private DependencyGraph graph;
+
+	@BeforeClass
+	public static void startApplication() {
+		// sizes are read through application services and graphs with more than one root are built concurrently
+		TestApplicationManager.getInstance();
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		repository = Files.createTempDirectory("retained-size");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(repository)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testDiamond() throws IOException {
+		// a -> b -> d, a -> c -> (d)
+		MavenArtifactNode a = added(null, "a", 1, "compile");
+		MavenArtifactNode b = added(a, "b", 2, "compile");
+		MavenArtifactNode c = added(a, "c", 4, "compile");
+		added(b, "d", 8, "compile");
+		omitted(c, "d", MavenArtifactState.DUPLICATE);
+
+		RetainedSizeIndex index = compute(false);
+
+		assertEquals(15, retainedKb(index, "a"));
+		// d stays on the classpath through the other parent
+		assertEquals(2, retainedKb(index, "b"));
+		assertEquals(4, retainedKb(index, "c"));
+		assertEquals(8, retainedKb(index, "d"));
+	}
+
+	@Test
+	public void testSharedSubtree() throws IOException {
+		// a -> s -> t -> u, b -> (s)
+		MavenArtifactNode a = added(null, "a", 1, "compile");
+		MavenArtifactNode s = added(a, "s", 2, "compile");
+		MavenArtifactNode t = added(s, "t", 4, "compile");
+		added(t, "u", 16, "compile");
+		MavenArtifactNode b = added(null, "b", 8, "compile");
+		omitted(b, "s", MavenArtifactState.DUPLICATE);
+
+		RetainedSizeIndex index = compute(false);
+
+		assertEquals(1, retainedKb(index, "a"));
+		assertEquals(8, retainedKb(index, "b"));
+		assertEquals(22, retainedKb(index, "s"));
+		assertEquals(20, retainedKb(index, "t"));
+		assertEquals(16, retainedKb(index, "u"));
+	}
+
+	@Test
+	public void testSharedSubtreeExpandedTwice() throws IOException {
+		// a -> s -> t, b -> s' -> t', the repeated subtree is not counted twice
+		MavenArtifactNode a = added(null, "a", 1, "compile");
+		MavenArtifactNode s = added(a, "s", 2, "compile");
+		added(s, "t", 4, "compile");
+		MavenArtifactNode b = added(null, "b", 8, "compile");
+		MavenArtifactNode s2 = added(b, "s", 2, "compile");
+		added(s2, "t", 4, "compile");
+
+		RetainedSizeIndex index = compute(false);
+
+		assertEquals(1, retainedKb(index, "a"));
+		assertEquals(8, retainedKb(index, "b"));
+		assertEquals(6, retainedKb(index, "s"));
+		assertEquals(4, retainedKb(index, "t"));
+	}
+
+	@Test
+	public void testTestScope() throws IOException {
+		// a -> s -> t, test scoped b -> (s)
+		MavenArtifactNode a = added(null, "a", 1, "compile");
+		MavenArtifactNode s = added(a, "s", 2, "compile");
+		added(s, "t", 4, "compile");
+		MavenArtifactNode b = added(null, "b", 8, "test");
+		omitted(b, "s", MavenArtifactState.DUPLICATE);
+
+		RetainedSizeIndex withTests = compute(false);
+		assertEquals(1, retainedKb(withTests, "a"));
+		assertEquals(8, retainedKb(withTests, "b"));
+
+		RetainedSizeIndex withoutTests = compute(true);
+		assertEquals(7, retainedKb(withoutTests, "a"));
+		assertEquals(0, retainedKb(withoutTests, "b"));
+		assertEquals(6, retainedKb(withoutTests, "s"));
+	}
+
+	@Test
+	public void testConflict() throws IOException {
+		// a -> (x:1.0) omitted for b -> x:2.0, excluding b would resolve the other version of x
+		MavenArtifactNode a = added(null, "a", 1, "compile");
+		omitted(a, "x", MavenArtifactState.CONFLICT);
+		MavenArtifactNode b = added(null, "b", 2, "compile");
+		added(b, "x", 4, "compile");
+
+		RetainedSizeIndex index = compute(false);
+
+		assertEquals(1, retainedKb(index, "a"));
+		assertEquals(2, retainedKb(index, "b"));
+		assertEquals(4, retainedKb(index, "x"));
+	}
+
+	@Test
+	public void testSameAsRemovingEachCoordinate() {
+		DependencyTreeFixture fixture = DependencyTreeFixture.builder()
+			.nodeCount(2_000)
+			.coordinateCount(300)
+			.conflictRatio(0.1)
+			.sharedSubtreeRatio(0.3)
+			.testScopeRatio(0.2)
+			.jarSizeKb(1, 64)
+			.localRepository(repository)
+			.seed(8)
+			.build();
+		graph = DependencyGraph.build(fixture.getRoots());
+		DependencySizeIndex sizeIndex = DependencySizeIndex.compute(graph, null, () -> false);
+		assertNotNull(sizeIndex);
+
+		for (boolean withoutTests : new boolean[]{false, true}) {
+			RetainedSizeIndex index = RetainedSizeIndex.compute(graph, sizeIndex, withoutTests, () -> false);
+			assertNotNull(index);
+			long[] resolvedKb = new long[graph.getCoordinateCount()];
+			for (int node = graph.getNodeCount() - 1; node >= 0; node--) {
+				if (!(withoutTests && graph.isTest(node)) && graph.getNode(node).getState() == MavenArtifactState.ADDED) {
+					resolvedKb[graph.getCoordinate(node)] = sizeIndex.getSizeKb(node);
+				}
+			}
+			BitSet reachable = reachable(withoutTests, -1);
+			for (int coordinate = 0; coordinate < graph.getCoordinateCount(); coordinate++) {
+				long expected = 0;
+				if (reachable.get(coordinate)) {
+					BitSet removed = (BitSet) reachable.clone();
+					removed.andNot(reachable(withoutTests, coordinate));
+					for (int leaving = removed.nextSetBit(0); leaving >= 0; leaving = removed.nextSetBit(leaving + 1)) {
+						expected += resolvedKb[leaving];
+					}
+				}
+
+				assertEquals(graph.getCoordinateKey(coordinate) + ", withoutTests=" + withoutTests, expected, index.getRetainedSizeKb(coordinate));
+			}
+		}
+	}
+
+	/**
+	 * coordinates reachable from the top level dependencies without passing through the excluded one
+	 */
+	private BitSet reachable(boolean withoutTests, int excluded) {
+		List<List<Integer>> successors = new ArrayList<>();
+		for (int i = 0; i <= graph.getCoordinateCount(); i++) {
+			successors.add(new ArrayList<>());
+		}
+		int root = graph.getCoordinateCount();
+		for (int node = 0; node < graph.getNodeCount(); node++) {
+			if (withoutTests && graph.isTest(node)) {
+				continue;
+			}
+			int parent = graph.getParent(node);
+			successors.get(parent == DependencyGraph.NONE ? root : graph.getCoordinate(parent)).add(graph.getCoordinate(node));
+		}
+		BitSet visited = new BitSet();
+		Deque<Integer> queue = new ArrayDeque<>(successors.get(root));
+		while (!queue.isEmpty()) {
+			int coordinate = queue.poll();
+			if (coordinate != excluded && !visited.get(coordinate)) {
+				visited.set(coordinate);
+				queue.addAll(successors.get(coordinate));
+			}
+		}
+		return visited;
+	}
+
+	private MavenArtifactNode added(@Nullable MavenArtifactNode parent, String artifactId, int sizeKb, String scope) throws IOException {
+		MavenArtifact artifact = artifacts.get(artifactId);
+		if (artifact == null) {
+			Path jar = repository.resolve(artifactId + "-2.0.jar");
+			Files.write(jar, new byte[sizeKb * 1024]);
+			artifact = artifact(artifactId, "2.0", scope, jar.toFile());
+			artifacts.put(artifactId, artifact);
+		}
+		return add(parent, new MavenArtifactNode(parent, artifact, MavenArtifactState.ADDED, null, scope, null, null));
+	}
+
+	private MavenArtifactNode omitted(MavenArtifactNode parent, String artifactId, MavenArtifactState state) {
+		String scope = parent.getArtifact().getScope();
+		MavenArtifact artifact = state == MavenArtifactState.CONFLICT ? artifact(artifactId, "1.0", scope, null) : artifacts.get(artifactId);
+		return add(parent, new MavenArtifactNode(parent, artifact, state, artifacts.get(artifactId), scope, null, null));
+	}
+
+	private MavenArtifactNode add(@Nullable MavenArtifactNode parent, MavenArtifactNode node) {
+		(parent == null ? roots : children.get(parent)).add(node);
+		children.put(node, new ArrayList<>());
+		return node;
+	}
+
+	private MavenArtifact artifact(String artifactId, String version, String scope, @Nullable File file) {
+		return new MavenArtifact("org.example", artifactId, version, version, "jar", null, scope, false, "jar", file, repository.toFile(), true, false);
+	}
+
+	private RetainedSizeIndex compute(boolean withoutTests) {
+		children.forEach(MavenArtifactNode::setDependencies);
+		graph = DependencyGraph.build(roots);
+		DependencySizeIndex sizeIndex = DependencySizeIndex.compute(graph, null, () -> false);
+		assertNotNull(sizeIndex);
+		RetainedSizeIndex index = RetainedSizeIndex.compute(graph, sizeIndex, withoutTests, () -> false);
+		assertNotNull(index);
+		return index;
+	}
+
+	private long retainedKb(RetainedSizeIndex index, String artifactId) {
+		int coordinate = graph.findCoordinate(artifacts.get(artifactId));
+		assertTrue(artifactId, coordinate != DependencyGraph.NONE);
+		return index.getRetainedSizeKb(coordinate);
+	}
+}
@@ -0,0 +1,83 @@
+package krasa.mavenhelper.analyzer;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SearchQueryTest {
+
+	@Test
+	public void testParse() {
+		SearchQuery query = SearchQuery.parse("  Jackson !TEST\tscope:Runtime !scope:test  core ");
+
+		assertEquals(List.of("jackson", "core"), query.getTerms());
+		assertEquals(List.of("test"), query.getExcludedTerms());
+		assertTrue(query.hasScopeFilter());
+		assertTrue(query.matchesScope("runtime"));
+		assertFalse(query.matchesScope("test"));
+		assertFalse(query.matchesScope(null));
+		assertEquals("  Jackson !TEST\tscope:Runtime !scope:test  core ", query.getText());
+	}
+
+	@Test
+	public void testEmpty() {
+		assertSame(SearchQuery.EMPTY, SearchQuery.parse(null));
+		assertSame(SearchQuery.EMPTY, SearchQuery.parse(" \t "));
+		assertTrue(SearchQuery.parse("! !").isEmpty());
+		// without a scope name it is an ordinary term
+		assertEquals(List.of("scope:"), SearchQuery.parse("scope:").getTerms());
+		assertFalse(SearchQuery.parse("scope:").hasScopeFilter());
+	}
+
+	@Test
+	public void testMatchesKey() {
+		SearchQuery query = SearchQuery.parse("jackson !annotations");
+
+		assertTrue(query.matchesKey("com.fasterxml.jackson.core : jackson-databind"));
+		assertFalse(query.matchesKey("com.fasterxml.jackson.core : jackson-annotations"));
+		assertFalse(query.matchesKey("org.slf4j : slf4j-api"));
+		assertTrue(SearchQuery.parse("scope:test").matchesKey("org.slf4j : slf4j-api"));
+	}
+
+	@Test
+	public void testMatchesScope() {
+		assertTrue(SearchQuery.parse("x").matchesScope("test"));
+		assertTrue(SearchQuery.parse("scope:compile").matchesScope(null));
+		assertTrue(SearchQuery.parse("scope:test scope:provided").matchesScope("PROVIDED"));
+		assertFalse(SearchQuery.parse("scope:test scope:provided").matchesScope("compile"));
+		assertFalse(SearchQuery.parse("!scope:compile").matchesScope(null));
+		assertTrue(SearchQuery.parse("!scope:compile").matchesScope("runtime"));
+	}
+
+	@Test
+	public void testIsRefinementOf() {
+		assertRefinement("jackson", "jack");
+		assertRefinement("jackson core", "jackson");
+		assertRefinement("core jackson-databind", "jackson core");
+		assertRefinement("jackson !test", "jackson");
+		// a shorter excluded term excludes more
+		assertRefinement("jackson !te", "jackson !test");
+		assertRefinement("jackson scope:test", "jack scope:test");
+
+		assertNotRefinement("jack", "jackson");
+		assertNotRefinement("jackson", "jackson core");
+		assertNotRefinement("jackson", "jackson !test");
+		assertNotRefinement("jackson !test", "jackson !te");
+		assertNotRefinement("jackson scope:test", "jackson");
+		assertNotRefinement("jackson", "jackson !scope:test");
+		assertNotRefinement("jackson", "");
+	}
+
+	private static void assertRefinement(String text, String previous) {
+		assertTrue(text + " after " + previous, SearchQuery.parse(text).isRefinementOf(SearchQuery.parse(previous)));
+	}
+
+	private static void assertNotRefinement(String text, String previous) {
+		assertFalse(text + " after " + previous, SearchQuery.parse(text).isRefinementOf(SearchQuery.parse(previous)));
+	}
+}
@@ -0,0 +1,58 @@
+package krasa.mavenhelper.analyzer;
+
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class UtilsTest {
+
+	@Test
+	public void testFormatThousands() {
+		assertEquals("0", Utils.formatThousands(0));
+		assertEquals("7", Utils.formatThousands(7));
+		assertEquals("999", Utils.formatThousands(999));
+		assertEquals("1 000", Utils.formatThousands(1000));
+		assertEquals("1 234", Utils.formatThousands(1234));
+		assertEquals("12 345", Utils.formatThousands(12345));
+		assertEquals("100 000", Utils.formatThousands(100_000));
+		assertEquals("1 000 000", Utils.formatThousands(1_000_000));
+		assertEquals("1 234 567", Utils.formatThousands(1_234_567));
+	}
+
+	@Test
+	public void testFormatThousandsNegative() {
+		assertEquals("-1", Utils.formatThousands(-1));
+		assertEquals("-999", Utils.formatThousands(-999));
+		assertEquals("-1 000", Utils.formatThousands(-1000));
+		assertEquals("-100 000", Utils.formatThousands(-100_000));
+		assertEquals("-1 000 000", Utils.formatThousands(-1_000_000));
+		assertEquals("-9 223 372 036 854 775 808", Utils.formatThousands(Long.MIN_VALUE));
+		assertEquals("9 223 372 036 854 775 807", Utils.formatThousands(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testSameAsDecimalFormat() {
+		// how sizes were formatted before
+		DecimalFormat formatter = (DecimalFormat) NumberFormat.getInstance(Locale.US);
+		DecimalFormatSymbols symbols = formatter.getDecimalFormatSymbols();
+		symbols.setGroupingSeparator(' ');
+		formatter.setDecimalFormatSymbols(symbols);
+
+		Random random = new Random(14);
+		for (int i = 0; i < 10_000; i++) {
+			long l = random.nextLong() >> random.nextInt(64);
+			assertEquals(formatter.format(l), Utils.formatThousands(l));
+		}
+		for (long l = 1; l > 0 && l <= Long.MAX_VALUE / 10; l *= 10) {
+			assertEquals(formatter.format(l), Utils.formatThousands(l));
+			assertEquals(formatter.format(-l), Utils.formatThousands(-l));
+			assertEquals(formatter.format(l - 1), Utils.formatThousands(l - 1));
+		}
+	}
+}
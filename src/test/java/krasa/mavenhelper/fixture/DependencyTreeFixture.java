@@ -0,0 +1,308 @@
+package krasa.mavenhelper.fixture;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jetbrains.idea.maven.model.MavenArtifactState;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Synthetic, reproducible resolved dependency trees of a large reactor module, for analyzer tests and benchmarks
+ * without real poms.
+ * <p>
+ * Every coordinate has a fixed list of dependencies, like a pom, so a coordinate pulls in the same subtree wherever it
+ * occurs. As in a Maven resolve, a repeated coordinate is normally an omitted leaf, with
+ * {@link Builder#sharedSubtreeRatio(double)} of them expanded again to get wide repetitive trees. A conflict is an
+ * occurrence of another version, omitted for the winning one. Optionally jars of the winning versions are written to a
+ * fake local repository, so sizes and jar metrics have real files to read.
+ * <p>
+ * Works in plain JUnit tests, platform test cases and the JMH benchmarks, the nodes need no IDE application.
+ */
+public final class DependencyTreeFixture {
+	private final List<MavenArtifactNode> roots;
+	private final int nodeCount;
+	private final int coordinateCount;
+	@Nullable
+	private final Path localRepository;
+
+	private DependencyTreeFixture(List<MavenArtifactNode> roots, int nodeCount, int coordinateCount, @Nullable Path localRepository) {
+		this.roots = roots;
+		this.nodeCount = nodeCount;
+		this.coordinateCount = coordinateCount;
+		this.localRepository = localRepository;
+	}
+
+	@NotNull
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return top level dependencies, as {@link org.jetbrains.idea.maven.project.MavenProject#getDependencyTree()}
+	 */
+	@NotNull
+	public List<MavenArtifactNode> getRoots() {
+		return roots;
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	public int getCoordinateCount() {
+		return coordinateCount;
+	}
+
+	@Nullable
+	public Path getLocalRepository() {
+		return localRepository;
+	}
+
+	public static final class Builder {
+		private int nodeCount = 10_000;
+		private int coordinateCount = -1;
+		private int maxDepth = 12;
+		private int maxChildren = 8;
+		private double conflictRatio = 0.05;
+		private double sharedSubtreeRatio = 0.1;
+		private double testScopeRatio = 0.1;
+		private int minJarSizeKb = 4;
+		private int maxJarSizeKb = 256;
+		@Nullable
+		private Path localRepository;
+		private long seed = 42;
+
+		private Builder() {
+		}
+
+		/**
+		 * Approximate number of nodes, the generator stops at the first subtree boundary past it.
+		 */
+		public Builder nodeCount(int nodeCount) {
+			this.nodeCount = nodeCount;
+			return this;
+		}
+
+		/**
+		 * Number of distinct groupId:artifactId, a quarter of the node count by default.
+		 */
+		public Builder coordinateCount(int coordinateCount) {
+			this.coordinateCount = coordinateCount;
+			return this;
+		}
+
+		public Builder maxDepth(int maxDepth) {
+			this.maxDepth = maxDepth;
+			return this;
+		}
+
+		/**
+		 * Maximal number of dependencies of one coordinate.
+		 */
+		public Builder maxChildren(int maxChildren) {
+			this.maxChildren = maxChildren;
+			return this;
+		}
+
+		/**
+		 * Fraction of transitive occurrences requesting another version than the resolved one.
+		 */
+		public Builder conflictRatio(double conflictRatio) {
+			this.conflictRatio = conflictRatio;
+			return this;
+		}
+
+		/**
+		 * Fraction of repeated coordinates whose subtree is included again instead of being an omitted leaf.
+		 */
+		public Builder sharedSubtreeRatio(double sharedSubtreeRatio) {
+			this.sharedSubtreeRatio = sharedSubtreeRatio;
+			return this;
+		}
+
+		/**
+		 * Fraction of top level dependencies in test scope.
+		 */
+		public Builder testScopeRatio(double testScopeRatio) {
+			this.testScopeRatio = testScopeRatio;
+			return this;
+		}
+
+		public Builder jarSizeKb(int minJarSizeKb, int maxJarSizeKb) {
+			this.minJarSizeKb = minJarSizeKb;
+			this.maxJarSizeKb = maxJarSizeKb;
+			return this;
+		}
+
+		/**
+		 * Writes a jar of every resolved artifact into the directory, laid out like a Maven local repository. Without it
+		 * artifacts have no files.
+		 */
+		public Builder localRepository(@Nullable Path localRepository) {
+			this.localRepository = localRepository;
+			return this;
+		}
+
+		public Builder seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		@NotNull
+		public DependencyTreeFixture build() {
+			return new Generator(this).generate();
+		}
+	}
+
+	private static final class Generator {
+		private static final String RESOLVED_VERSION = "2.0.0";
+
+		private final Builder settings;
+		private final Random random;
+		private final int coordinateCount;
+		/**
+		 * dependencies of every coordinate, only on coordinates with a higher index, so there are no cycles
+		 */
+		private final int[][] poms;
+		private final File[] jars;
+		private final BitSet jarWritten = new BitSet();
+		private final BitSet seen = new BitSet();
+		private int remaining;
+		private int created;
+
+		private Generator(Builder settings) {
+			this.settings = settings;
+			this.random = new Random(settings.seed);
+			this.coordinateCount = settings.coordinateCount > 0 ? settings.coordinateCount : Math.max(1, settings.nodeCount / 4);
+			this.poms = new int[coordinateCount][];
+			this.jars = new File[coordinateCount];
+			this.remaining = settings.nodeCount;
+			for (int coordinate = 0; coordinate < coordinateCount; coordinate++) {
+				int available = coordinateCount - coordinate - 1;
+				int count = Math.min(available, random.nextInt(settings.maxChildren + 1));
+				int[] dependencies = new int[count];
+				for (int i = 0; i < count; i++) {
+					// mostly near ones, so that libraries form families with shared subtrees
+					int distance = 1 + (int) Math.min(available - 1, Math.abs(random.nextGaussian()) * Math.max(1, available / 8.0));
+					dependencies[i] = coordinate + distance;
+				}
+				poms[coordinate] = dependencies;
+			}
+		}
+
+		private DependencyTreeFixture generate() {
+			List<MavenArtifactNode> roots = new ArrayList<>();
+			int nextRoot = 0;
+			while (remaining > 0) {
+				String scope = random.nextDouble() < settings.testScopeRatio ? "test" : "compile";
+				int coordinate = nextRoot < coordinateCount && random.nextInt(4) != 0 ? nextRoot++ : random.nextInt(coordinateCount);
+				roots.add(createNode(null, coordinate, scope, 0));
+			}
+			return new DependencyTreeFixture(Collections.unmodifiableList(roots), created, coordinateCount, settings.localRepository);
+		}
+
+		private MavenArtifactNode createNode(@Nullable MavenArtifactNode parent, int coordinate, String scope, int depth) {
+			remaining--;
+			created++;
+			MavenArtifact winner = artifact(coordinate, RESOLVED_VERSION, scope, getJar(coordinate));
+			boolean conflict = parent != null && random.nextDouble() < settings.conflictRatio;
+			boolean repeated = parent != null && seen.get(coordinate);
+			seen.set(coordinate);
+
+			MavenArtifactNode node;
+			List<MavenArtifactNode> children = new ArrayList<>();
+			if (conflict) {
+				MavenArtifact requested = artifact(coordinate, "1." + random.nextInt(10) + ".0", scope, null);
+				node = new MavenArtifactNode(parent, requested, MavenArtifactState.CONFLICT, winner, scope, null, null);
+			} else if (repeated && random.nextDouble() >= settings.sharedSubtreeRatio) {
+				node = new MavenArtifactNode(parent, winner, MavenArtifactState.DUPLICATE, winner, scope, null, null);
+			} else {
+				node = new MavenArtifactNode(parent, winner, MavenArtifactState.ADDED, null, scope, null, null);
+				if (depth < settings.maxDepth) {
+					for (int dependency : poms[coordinate]) {
+						if (remaining <= 0) {
+							break;
+						}
+						children.add(createNode(node, dependency, scope, depth + 1));
+					}
+				}
+			}
+			node.setDependencies(children);
+			return node;
+		}
+
+		@Nullable
+		private File getJar(int coordinate) {
+			if (!jarWritten.get(coordinate)) {
+				jarWritten.set(coordinate);
+				jars[coordinate] = writeJar(coordinate);
+			}
+			return jars[coordinate];
+		}
+
+		private MavenArtifact artifact(int coordinate, String version, String scope, @Nullable File file) {
+			File localRepository = settings.localRepository != null ? settings.localRepository.toFile() : new File("repository");
+			return new MavenArtifact(groupId(coordinate), artifactId(coordinate), version, version, "jar", null, scope, false, "jar",
+				file, localRepository, true, false);
+		}
+
+		private static String groupId(int coordinate) {
+			return "org.example.family" + coordinate / 16;
+		}
+
+		private static String artifactId(int coordinate) {
+			return "artifact-" + coordinate;
+		}
+
+		@Nullable
+		private File writeJar(int coordinate) {
+			if (settings.localRepository == null) {
+				return null;
+			}
+			String artifactId = artifactId(coordinate);
+			Path jar = settings.localRepository
+				.resolve(groupId(coordinate).replace('.', '/'))
+				.resolve(artifactId)
+				.resolve(RESOLVED_VERSION)
+				.resolve(artifactId + "-" + RESOLVED_VERSION + ".jar");
+			int sizeKb = settings.minJarSizeKb + random.nextInt(Math.max(1, settings.maxJarSizeKb - settings.minJarSizeKb + 1));
+			try {
+				Files.createDirectories(jar.getParent());
+				writeJar(jar, groupId(coordinate), artifactId, sizeKb);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return jar.toFile();
+		}
+
+		/**
+		 * Stored classes of random bytes, so the jar has about the requested size. A few class names are shared by a
+		 * whole group, which makes duplicate classes across jars.
+		 */
+		private void writeJar(Path jar, String groupId, String artifactId, int sizeKb) throws IOException {
+			String packageName = groupId.replace('.', '/');
+			byte[] content = new byte[4096];
+			try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+				zip.setLevel(0);
+				int classCount = Math.max(1, sizeKb / 4);
+				for (int i = 0; i < classCount; i++) {
+					random.nextBytes(content);
+					String name = i < 2 ? packageName + "/Shared" + i + ".class" : packageName + "/" + artifactId.replace('-', '_') + "/Class" + i + ".class";
+					zip.putNextEntry(new ZipEntry(name));
+					zip.write(content);
+					zip.closeEntry();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package krasa.mavenhelper.fixture;
+
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jetbrains.idea.maven.model.MavenArtifactState;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyTreeFixtureTest {
+
+	@Test
+	public void testReproducible() {
+		assertEquals(describe(DependencyTreeFixture.builder().nodeCount(2_000).seed(1).build()),
+			describe(DependencyTreeFixture.builder().nodeCount(2_000).seed(1).build()));
+		assertNotEquals(describe(DependencyTreeFixture.builder().nodeCount(2_000).seed(1).build()),
+			describe(DependencyTreeFixture.builder().nodeCount(2_000).seed(2).build()));
+	}
+
+	@Test
+	public void testShape() {
+		DependencyTreeFixture fixture = DependencyTreeFixture.builder()
+			.nodeCount(5_000)
+			.coordinateCount(500)
+			.conflictRatio(0.1)
+			.testScopeRatio(0.5)
+			.build();
+		List<MavenArtifactNode> nodes = collect(fixture.getRoots());
+
+		assertEquals(fixture.getNodeCount(), nodes.size());
+		assertEquals(5_000, nodes.size());
+		assertNull(fixture.getLocalRepository());
+		Set<String> coordinates = new HashSet<>();
+		Map<MavenArtifactState, Integer> states = new EnumMap<>(MavenArtifactState.class);
+		int testRoots = 0;
+		for (MavenArtifactNode node : nodes) {
+			MavenArtifact artifact = node.getArtifact();
+			coordinates.add(artifact.getGroupId() + ":" + artifact.getArtifactId());
+			states.merge(node.getState(), 1, Integer::sum);
+			assertNull(artifact.getFile());
+			if (node.getParent() == null) {
+				testRoots += "test".equals(artifact.getScope()) ? 1 : 0;
+			} else {
+				assertSame(node, find(node.getParent().getDependencies(), node));
+				assertEquals(node.getParent().getArtifact().getScope(), artifact.getScope());
+			}
+			if (node.getState() == MavenArtifactState.ADDED) {
+				assertEquals("2.0.0", artifact.getVersion());
+			} else {
+				// omitted nodes are leaves pointing to the winning version
+				assertTrue(node.getDependencies().isEmpty());
+				assertEquals("2.0.0", node.getRelatedArtifact().getVersion());
+			}
+			if (node.getState() == MavenArtifactState.CONFLICT) {
+				assertNotEquals("2.0.0", artifact.getVersion());
+			}
+		}
+		assertTrue(coordinates.size() <= fixture.getCoordinateCount());
+		assertTrue(coordinates.size() > fixture.getCoordinateCount() / 2);
+		assertTrue(states.get(MavenArtifactState.CONFLICT) > nodes.size() / 20);
+		assertTrue(states.get(MavenArtifactState.DUPLICATE) > 0);
+		assertTrue(testRoots > 0 && testRoots < fixture.getRoots().size());
+	}
+
+	@Test
+	public void testLocalRepository() throws IOException {
+		Path repository = Files.createTempDirectory("fixture");
+		try {
+			DependencyTreeFixture fixture = DependencyTreeFixture.builder()
+				.nodeCount(500)
+				.jarSizeKb(16, 64)
+				.localRepository(repository)
+				.build();
+
+			assertEquals(repository, fixture.getLocalRepository());
+			for (MavenArtifactNode node : collect(fixture.getRoots())) {
+				if (node.getState() != MavenArtifactState.ADDED) {
+					continue;
+				}
+				File jar = node.getArtifact().getFile();
+				assertNotNull(jar);
+				assertTrue(jar.toPath().startsWith(repository));
+				assertTrue(jar.getPath(), jar.isFile());
+				assertTrue(jar.getPath(), jar.length() >= 16 * 1024 && jar.length() < 80 * 1024);
+			}
+		} finally {
+			try (Stream<Path> files = Files.walk(repository)) {
+				files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+
+	private static List<MavenArtifactNode> collect(List<MavenArtifactNode> roots) {
+		List<MavenArtifactNode> nodes = new ArrayList<>();
+		Deque<MavenArtifactNode> stack = new ArrayDeque<>(roots);
+		while (!stack.isEmpty()) {
+			MavenArtifactNode node = stack.pop();
+			nodes.add(node);
+			stack.addAll(node.getDependencies());
+		}
+		return nodes;
+	}
+
+	private static MavenArtifactNode find(List<MavenArtifactNode> nodes, MavenArtifactNode node) {
+		for (MavenArtifactNode candidate : nodes) {
+			if (candidate == node) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	private static String describe(DependencyTreeFixture fixture) {
+		StringBuilder sb = new StringBuilder();
+		for (MavenArtifactNode node : collect(fixture.getRoots())) {
+			MavenArtifact artifact = node.getArtifact();
+			sb.append(artifact.getGroupId()).append(':').append(artifact.getArtifactId()).append(':').append(artifact.getVersion())
+				.append(' ').append(node.getState()).append(' ').append(artifact.getScope()).append(' ').append(node.getDependencies().size()).append('\n');
+		}
+		return sb.toString();
+	}
+}
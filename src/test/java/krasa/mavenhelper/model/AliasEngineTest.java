@@ -0,0 +1,218 @@
+package krasa.mavenhelper.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AliasEngineTest {
+	private static final List<String> MACROS = List.of("<<<CM>>>", "<<<CC>>>");
+
+	@Test
+	public void testReplacementCreatesOccurrenceOfLaterAlias() {
+		List<Alias> aliases = List.of(Alias.of("$e$", ""), Alias.of("$bb$", "$x$q<<<CM>>>"), Alias.of("$a$", "a$x$$y$"));
+
+		assertEquals("$xa$x$$y$x$q[<<<CM>>>]ab", expand(aliases, "$x$a$bb$ab"));
+		assertEquals(sequential(aliases, "$x$a$bb$ab"), expand(aliases, "$x$a$bb$ab"));
+	}
+
+	@Test
+	public void testChainedAliases() {
+		List<Alias> aliases = List.of(Alias.of("$install$", "clean $skip$ install"), Alias.of("$skip$", "-DskipTests"));
+
+		assertEquals("clean -DskipTests install", expand(aliases, "$install$"));
+		// an earlier alias is not applied to a later value
+		assertEquals("$install$", expand(List.of(Alias.of("$skip$", "-DskipTests"), Alias.of("$x$", "$install$")), "$x$"));
+	}
+
+	@Test
+	public void testSelfReferenceIsExpandedOnce() {
+		List<Alias> aliases = List.of(Alias.of("$x$", "-Dx=$x$"));
+
+		assertEquals("test -Dx=$x$", expand(aliases, "test $x$"));
+		assertTrue(AliasEngine.validate(aliases, MACROS).isEmpty());
+	}
+
+	@Test
+	public void testEmptyAndNullNames() {
+		List<Alias> aliases = List.of(Alias.of("", "-"), Alias.of(null, "x"), Alias.of("a", null));
+
+		assertEquals("-a-b-", expand(aliases, "ab"));
+		assertEquals(sequential(aliases, "ab"), expand(aliases, "ab"));
+	}
+
+	@Test
+	public void testMacrosAreResolvedOnceAndOnlyWhenUsed() {
+		Map<String, Integer> calls = new HashMap<>();
+		AliasEngine engine = AliasEngine.compile(List.of(Alias.of("$m$", "<<<CM>>>")), MACROS);
+
+		String result = engine.expand("$m$ <<<CM>>> $m$", macro -> {
+			calls.merge(macro, 1, Integer::sum);
+			return "module";
+		});
+
+		assertEquals("module module module", result);
+		assertEquals(Map.of("<<<CM>>>", 1), calls);
+		assertEquals("<<<CC>>>", engine.expand("<<<CC>>>", macro -> null));
+	}
+
+	@Test
+	public void testAliasShadowsMacro() {
+		List<Alias> aliases = List.of(Alias.of("<<<CM>>>", "x"));
+
+		assertEquals("x", expand(aliases, "<<<CM>>>"));
+		assertEquals(List.of("Alias '<<<CM>>>' overlaps with macro '<<<CM>>>'"), AliasEngine.validate(aliases, MACROS));
+	}
+
+	@Test
+	public void testSameResultAsSequentialReplace() {
+		Random random = new Random(42);
+		for (int i = 0; i < 20_000; i++) {
+			List<Alias> aliases = new ArrayList<>();
+			int count = 1 + random.nextInt(5);
+			for (int j = 0; j < count; j++) {
+				String name = random.nextInt(50) == 0 ? "" : randomText(random, 1 + random.nextInt(4));
+				aliases.add(Alias.of(name, randomText(random, random.nextInt(7))));
+			}
+			String commandLine = randomText(random, random.nextInt(13));
+
+			assertEquals(aliases + " on " + commandLine, sequential(aliases, commandLine), expand(aliases, commandLine));
+		}
+	}
+
+	@Test
+	public void testSinglePass() {
+		List<Alias> aliases = List.of(Alias.of("$install$", "clean $skip$ install -pl <<<CM>>>"), Alias.of("$skip$", "-DskipTests"),
+			Alias.of("$x$", "-Dx=$x$"));
+		AliasEngine engine = AliasEngine.compile(aliases, MACROS);
+
+		assertTrue(engine.isSinglePass());
+		assertEquals("clean -DskipTests install -pl [<<<CM>>>] -Dx=$x$ [<<<CC>>>]",
+			engine.expand("$install$ $x$ <<<CC>>>", AliasEngineTest::resolve));
+		// overlapping names and text joined to a later name are replayed
+		assertEquals(sequential(aliases, "$install$skip$"), expand(aliases, "$install$skip$"));
+		assertEquals(sequential(aliases, "<<<C$skip$M>>>"), expand(aliases, "<<<C$skip$M>>>"));
+		// a macro value containing a later macro is replaced again, like before
+		Function<String, String> resolver = macro -> macro.equals("<<<CM>>>") ? "x<<<CC>>>" : "y";
+		assertEquals("xy y", engine.expand("<<<CM>>> <<<CC>>>", resolver));
+		assertEquals("xy y", engine.expand("<<<CM>>> <<<CC>>>", resolver));
+		assertEquals("plain", engine.expand("plain", macro -> {
+			throw new AssertionError(macro);
+		}));
+	}
+
+	@Test
+	public void testReplayedWithWarnings() {
+		assertFalse(AliasEngine.compile(List.of(Alias.of("$a$", "$b$"), Alias.of("$b$", "$a$")), MACROS).isSinglePass());
+		assertFalse(AliasEngine.compile(List.of(Alias.of("$a", "x"), Alias.of("$ab", "y")), MACROS).isSinglePass());
+		assertFalse(AliasEngine.compile(List.of(Alias.of("", "x")), MACROS).isSinglePass());
+	}
+
+	@Test
+	public void testSinglePassSameAsSequentialReplace() {
+		Random random = new Random(25);
+		int singlePass = 0;
+		for (int i = 0; i < 50_000; i++) {
+			List<Alias> aliases = new ArrayList<>();
+			int count = 1 + random.nextInt(5);
+			for (int j = 0; j < count; j++) {
+				aliases.add(Alias.of(randomName(random), randomText(random, random.nextInt(7))));
+			}
+			if (!AliasEngine.compile(aliases, MACROS).isSinglePass()) {
+				continue;
+			}
+			singlePass++;
+			for (int j = 0; j < 10; j++) {
+				String commandLine = randomCommandLine(random, aliases);
+
+				assertEquals(aliases + " on " + commandLine, sequential(aliases, commandLine), expand(aliases, commandLine));
+			}
+		}
+		assertTrue(singlePass > 5_000);
+	}
+
+	@Test
+	public void testValidate() {
+		List<Alias> aliases = List.of(
+			Alias.of("$a$", "$b$"),
+			Alias.of("$b$", "$a$"),
+			Alias.of("$a$", "again"),
+			Alias.of("$a$$", "longer"),
+			Alias.of("", "empty"),
+			Alias.of("CM", "macro"));
+
+		assertEquals(List.of(
+				"Alias with an empty name: 'empty'",
+				"Duplicate alias '$a$'",
+				"Alias '$a$' overlaps with '$a$$'",
+				"Alias 'CM' overlaps with macro '<<<CM>>>'",
+				"Cyclic aliases '$a$' -> '$b$' -> '$a$'"),
+			AliasEngine.validate(aliases, MACROS));
+	}
+
+	private static String randomText(Random random, int length) {
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length) {
+			if (random.nextInt(12) == 0) {
+				sb.append(MACROS.get(random.nextInt(MACROS.size())));
+			} else {
+				sb.append("$$$$abbxyq".charAt(random.nextInt(10)));
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String randomName(Random random) {
+		StringBuilder sb = new StringBuilder("$");
+		int length = 1 + random.nextInt(3);
+		for (int i = 0; i < length; i++) {
+			sb.append("abcdxyz".charAt(random.nextInt(7)));
+		}
+		return random.nextBoolean() ? sb.append('$').toString() : sb.toString();
+	}
+
+	private static String randomCommandLine(Random random, List<Alias> aliases) {
+		StringBuilder sb = new StringBuilder();
+		int parts = random.nextInt(6);
+		for (int i = 0; i < parts; i++) {
+			switch (random.nextInt(4)) {
+				case 0 -> sb.append(aliases.get(random.nextInt(aliases.size())).getFrom());
+				case 1 -> sb.append(MACROS.get(random.nextInt(MACROS.size())));
+				case 2 -> sb.append(' ');
+				default -> sb.append(randomText(random, 1 + random.nextInt(3)));
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String expand(List<Alias> aliases, String commandLine) {
+		return AliasEngine.compile(aliases, MACROS).expand(commandLine, AliasEngineTest::resolve);
+	}
+
+	/**
+	 * how aliases and macros were applied before {@link AliasEngine}
+	 */
+	private static String sequential(List<Alias> aliases, String commandLine) {
+		for (Alias alias : aliases) {
+			commandLine = alias.applyTo(commandLine);
+		}
+		for (String macro : MACROS) {
+			if (commandLine.contains(macro)) {
+				commandLine = commandLine.replace(macro, resolve(macro));
+			}
+		}
+		return commandLine;
+	}
+
+	private static String resolve(String macro) {
+		return "[" + macro + "]";
+	}
+}